@@ -0,0 +1,105 @@
+package com.skillshare.backend.benchmarks;
+
+import com.skillshare.backend.model.GroupPost;
+import com.skillshare.backend.responses.FeedPage;
+import com.skillshare.backend.services.GroupPostService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Date;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load on group discussions: 10k groups, activity skewed so a few groups take most of the traffic,
+ * with threads opening groups (first page) and posting to them concurrently.
+ * The opens and queries counters are group openings and the first-page loads among them that would
+ * have reached Mongo; queries/opens is the miss ratio. hotGroups=0 disables the newest-page cache for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class GroupFeedBenchmark {
+
+    @Param({"0", "1000", "10000"})
+    public long hotGroups;
+
+    @Param({"10000"})
+    public int groupCount;
+
+    // Higher values concentrate activity on fewer groups
+    @Param({"3"})
+    public double skew;
+
+    // The repository stand-in runs on the calling thread, so it counts into that thread's FirstPageLoads
+    private static final ThreadLocal<FirstPageLoads> CURRENT = new ThreadLocal<>();
+
+    private String[] groupIds;
+    private GroupPostService service;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class FirstPageLoads {
+        public long opens;
+        public long queries;
+
+        @Setup
+        public void bind() {
+            CURRENT.set(this);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        groupIds = new String[groupCount];
+        for (int i = 0; i < groupCount; i++) groupIds[i] = String.format("%024x", i);
+        service = new GroupPostService(hotGroups, 20, 60);
+        StandIns.inject(service, "postRepo", StandIns.groupPostRepository(() -> {
+            FirstPageLoads loads = CURRENT.get();
+            if (loads != null) loads.queries++;
+        }));
+        // Seed every group with a few posts so cold groups still have a page to load
+        for (String groupId : groupIds) {
+            for (int i = 0; i < 5; i++) service.publish(post(groupId));
+        }
+    }
+
+    private String pickGroup() {
+        double u = ThreadLocalRandom.current().nextDouble();
+        return groupIds[(int) (Math.pow(u, skew) * groupIds.length)];
+    }
+
+    private static GroupPost post(String groupId) {
+        GroupPost post = new GroupPost();
+        post.setGroupId(groupId);
+        post.setUserId(String.format("%024x", ThreadLocalRandom.current().nextInt(100_000)));
+        post.setContent("Does anyone have notes from today's session?");
+        post.setCreatedAt(new Date());
+        return post;
+    }
+
+    // Opening a group: the first page of its discussion
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public FeedPage<GroupPost> openGroup(FirstPageLoads loads) {
+        loads.opens++;
+        return service.page(pickGroup(), null, null, 20);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public GroupPost postToGroup() {
+        return service.publish(post(pickGroup()));
+    }
+
+    @Benchmark
+    public FeedPage<GroupPost> openGroupReadOnly(FirstPageLoads loads) {
+        loads.opens++;
+        return service.page(pickGroup(), null, null, 20);
+    }
+}
@@ -0,0 +1,54 @@
+package com.skillshare.backend.benchmarks;
+
+import com.skillshare.backend.model.User;
+import com.skillshare.backend.security.AuthCache;
+import com.skillshare.backend.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token generation and parsing, and the per-request work JwtFilter does through AuthCache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private AuthCache authCache;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        List<User> users = StandIns.users(1_000, 1);
+        authCache = new AuthCache(100_000, 50_000, 300);
+        StandIns.inject(authCache, "jwtUtil", jwtUtil);
+        StandIns.inject(authCache, "userRepo", StandIns.userRepository(users));
+        token = jwtUtil.generateToken(users.get(0).getEmail(), 0);
+        authCache.verify(token);
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtUtil.generateToken("user0@example.com", 3);
+    }
+
+    @Benchmark
+    public Claims parse() {
+        return jwtUtil.parseToken(token);
+    }
+
+    // What JwtFilter pays per request once the token and user are cached
+    @Benchmark
+    public User filterCachedPath() {
+        AuthCache.VerifiedToken verified = authCache.verify(token);
+        return authCache.user(verified.email());
+    }
+}
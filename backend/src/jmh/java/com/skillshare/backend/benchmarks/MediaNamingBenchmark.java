@@ -0,0 +1,46 @@
+package com.skillshare.backend.benchmarks;
+
+import com.skillshare.backend.services.ImageVariantService;
+import com.skillshare.backend.services.MediaStorageService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filename and extension handling done for every upload and every resized-image request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MediaNamingBenchmark {
+
+    private MultipartFile image;
+    private MultipartFile video;
+    private String storedName;
+
+    @Setup
+    public void setUp() {
+        image = StandIns.upload("Holiday Photo.final.JPEG");
+        video = StandIns.upload("lecture-recording.mp4");
+        storedName = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08.jpeg";
+    }
+
+    @Benchmark
+    public String extension() {
+        return MediaStorageService.extension(image);
+    }
+
+    @Benchmark
+    public String mediaTypeVideo() {
+        return MediaStorageService.mediaType(video);
+    }
+
+    @Benchmark
+    public String variantName() {
+        return ImageVariantService.variantName(storedName, 320);
+    }
+}
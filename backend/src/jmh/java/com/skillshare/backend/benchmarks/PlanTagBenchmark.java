@@ -0,0 +1,136 @@
+package com.skillshare.backend.benchmarks;
+
+import com.skillshare.backend.repository.LearningPlanTagsListener;
+import com.skillshare.backend.responses.TagCount;
+import com.skillshare.backend.services.TagTrie;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Tag lookups over a plan collection: the old case-insensitive regex scan behind /api/plans/tag/{tag}
+ * and a scan-and-count autocomplete, next to the TagTrie that PlanTagIndex keeps in memory.
+ * Tag popularity is skewed so a few tags are very common and most are rare.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlanTagBenchmark {
+
+    private static final String[] PREFIXES = {"j", "ja", "jav", "py", "re", "sp", "d", "ma", "tag12", "c"};
+    private static final String[] STEMS = {"java", "python", "react", "spring", "docker", "design", "math",
+            "music", "cooking", "chess", "css", "data", "devops", "marketing", "photography"};
+
+    @Param({"500000"})
+    public int planCount;
+
+    @Param({"20000"})
+    public int vocabulary;
+
+    private List<List<String>> planTags;
+    private TagTrie trie;
+    private String[] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        String[] tags = new String[vocabulary];
+        for (int i = 0; i < vocabulary; i++) {
+            tags[i] = i < STEMS.length ? STEMS[i] : STEMS[i % STEMS.length] + "-tag" + i;
+        }
+
+        planTags = new ArrayList<>(planCount);
+        trie = new TagTrie();
+        for (int p = 0; p < planCount; p++) {
+            List<String> raw = new ArrayList<>();
+            int count = 1 + random.nextInt(5);
+            for (int t = 0; t < count; t++) {
+                // Squaring a uniform draw favours low indexes, giving a long tail of rare tags
+                double u = random.nextDouble();
+                String tag = tags[(int) (u * u * vocabulary)];
+                raw.add(random.nextBoolean() ? tag : tag.toUpperCase());
+            }
+            planTags.add(raw);
+            for (String tag : LearningPlanTagsListener.normalize(raw)) trie.add(tag, 1);
+        }
+        queries = new String[]{"Java", "react", "DOCKER", "chess-tag9", "music-tag1997", "design"};
+    }
+
+    private String nextPrefix() {
+        next = (next + 1) % PREFIXES.length;
+        return PREFIXES[next];
+    }
+
+    private String nextQuery() {
+        next = (next + 1) % queries.length;
+        return queries[next];
+    }
+
+    // What findByTagsContainingIgnoreCase made Mongo do: test every tag of every plan against a case-insensitive regex
+    @Benchmark
+    public int regexTagScan() {
+        Pattern pattern = Pattern.compile("^" + Pattern.quote(nextQuery()) + "$", Pattern.CASE_INSENSITIVE);
+        int matches = 0;
+        for (List<String> tags : planTags) {
+            for (String tag : tags) {
+                if (pattern.matcher(tag).matches()) {
+                    matches++;
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public long trieTagCount() {
+        return trie.count(LearningPlanTagsListener.normalize(nextQuery()));
+    }
+
+    // Autocomplete without an index: count tags under the prefix across all plans, then rank
+    @Benchmark
+    public List<TagCount> scanAutocomplete() {
+        String prefix = nextPrefix();
+        Map<String, Long> counts = new HashMap<>();
+        for (List<String> tags : planTags) {
+            for (String tag : LearningPlanTagsListener.normalize(tags)) {
+                if (tag.startsWith(prefix)) counts.merge(tag, 1L, Long::sum);
+            }
+        }
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(10)
+                .map(e -> new TagCount(e.getKey(), e.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<TagCount> trieAutocomplete() {
+        return trie.top(nextPrefix(), 10);
+    }
+
+    @Benchmark
+    public List<TagCount> trieFacets() {
+        return trie.top("", 20);
+    }
+
+    // One plan update: its old tags lose a count, its new tags gain one
+    @Benchmark
+    public void trieIncrementalUpdate() {
+        String tag = LearningPlanTagsListener.normalize(nextQuery());
+        trie.add(tag, -1);
+        trie.add(tag, 1);
+    }
+}
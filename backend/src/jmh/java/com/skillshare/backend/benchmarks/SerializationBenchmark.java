@@ -0,0 +1,57 @@
+package com.skillshare.backend.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skillshare.backend.model.Post;
+import com.skillshare.backend.model.Story;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of Post and Story documents as the REST controllers return them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"10", "1000"})
+    public int reactions;
+
+    @Param({"0", "500"})
+    public int comments;
+
+    private ObjectMapper mapper;
+    private Post post;
+    private Story story;
+    private byte[] postJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        mapper = Jackson2ObjectMapperBuilder.json().build(); // Same defaults Spring MVC uses
+        post = StandIns.largePost(reactions, comments);
+        story = StandIns.story();
+        postJson = mapper.writeValueAsBytes(post);
+    }
+
+    @Benchmark
+    public byte[] writePost() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(post);
+    }
+
+    @Benchmark
+    public Post readPost() throws IOException {
+        return mapper.readValue(postJson, Post.class);
+    }
+
+    @Benchmark
+    public byte[] writeStory() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(story);
+    }
+}
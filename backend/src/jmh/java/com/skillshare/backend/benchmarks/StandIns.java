@@ -0,0 +1,195 @@
+package com.skillshare.backend.benchmarks;
+
+import com.skillshare.backend.model.Comment;
+import com.skillshare.backend.model.GroupPost;
+import com.skillshare.backend.model.Post;
+import com.skillshare.backend.model.Story;
+import com.skillshare.backend.model.User;
+import com.skillshare.backend.repository.GroupPostRepository;
+import com.skillshare.backend.repository.UserRepository;
+import com.skillshare.backend.repository.UserSearchKeysListener;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory replacements for Mongo and Spring wiring, plus sample data, shared by the benchmarks.
+ */
+final class StandIns {
+
+    private static final String[] FIRST = {"Amal", "Nimal", "Kasun", "Dilani", "Sachini", "Ruwan", "Tharindu", "Ishara"};
+    private static final String[] LAST = {"Perera", "Fernando", "Silva", "Jayasinghe", "Bandara", "Wickramasinghe"};
+
+    private StandIns() {
+    }
+
+    // Sets a private @Autowired field, as Spring would
+    static void inject(Object target, String fieldName, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), fieldName);
+        if (field == null) throw new IllegalArgumentException("No field " + fieldName + " on " + target.getClass());
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+
+    static List<User> users(int count, long seed) {
+        Random random = new Random(seed);
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setId(String.format("%024x", i));
+            user.setName(FIRST[random.nextInt(FIRST.length)]);
+            user.setLastName(LAST[random.nextInt(LAST.length)] + i);
+            user.setEmail("user" + i + "@example.com");
+            user.setProfilePic("/media/" + String.format("%064x", i) + ".jpg");
+            user.setCategories(List.of("java", "design"));
+            user.setSearchKeys(UserSearchKeysListener.searchKeys(user));
+            users.add(user);
+        }
+        return users;
+    }
+
+    // UserRepository backed by a map; only the lookups used on the request path are supported
+    static UserRepository userRepository(List<User> users) {
+        Map<String, User> byEmail = new HashMap<>();
+        Map<String, User> byId = new HashMap<>();
+        for (User user : users) {
+            byEmail.put(user.getEmail(), user);
+            byId.put(user.getId(), user);
+        }
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findByEmail" -> byEmail.get((String) args[0]);
+                    case "findById" -> Optional.ofNullable(byId.get((String) args[0]));
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryUserRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    // GroupPostRepository keeping each group's posts newest first; counts the queries that would reach Mongo
+    static GroupPostRepository groupPostRepository(Runnable onQuery) {
+        Map<String, ArrayDeque<GroupPost>> byGroup = new ConcurrentHashMap<>();
+        return (GroupPostRepository) Proxy.newProxyInstance(GroupPostRepository.class.getClassLoader(),
+                new Class<?>[]{GroupPostRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "insert" -> {
+                        GroupPost post = (GroupPost) args[0];
+                        post.setId(new ObjectId().toHexString());
+                        ArrayDeque<GroupPost> posts = byGroup.computeIfAbsent(post.getGroupId(), g -> new ArrayDeque<>());
+                        synchronized (posts) {
+                            posts.addFirst(post);
+                        }
+                        yield post;
+                    }
+                    case "findByGroupId" -> {
+                        onQuery.run();
+                        ArrayDeque<GroupPost> posts = byGroup.get((String) args[0]);
+                        if (posts == null) yield List.of();
+                        synchronized (posts) {
+                            yield posts.stream().limit(((Pageable) args[1]).getPageSize()).toList();
+                        }
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryGroupPostRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    static Post largePost(int reactions, int comments) {
+        Post post = new Post();
+        post.setId(String.format("%024x", 42));
+        post.setUserId(String.format("%024x", 1));
+        post.setContent("Sharing what I learned about Spring Data aggregation pipelines this week. ".repeat(10));
+        post.setMediaUrls(List.of("/media/" + "a".repeat(64) + ".jpg", "/media/" + "b".repeat(64) + ".mp4"));
+        post.setMediaTypes(List.of("image", "video"));
+        post.setCreatedAt(new Date(1_700_000_000_000L));
+        for (int i = 0; i < reactions; i++) {
+            String userId = String.format("%024x", i);
+            post.getReactions().put(userId, "👍");
+            post.getReactionUsers().put(userId, "User " + i);
+        }
+        List<Comment> embedded = new ArrayList<>(comments);
+        for (int i = 0; i < comments; i++) {
+            embedded.add(new Comment(null, post.getId(), String.format("%024x", i), "User " + i,
+                    "Great explanation, thanks for sharing! #" + i, new Date(1_700_000_000_000L + i)));
+        }
+        post.setComments(embedded);
+        post.setCommentCount(comments);
+        return post;
+    }
+
+    static Story story() {
+        Story story = new Story();
+        story.setId(String.format("%024x", 7));
+        story.setUserId(String.format("%024x", 1));
+        story.setEmail("user1@example.com");
+        story.setUserName("Amal Perera");
+        story.setUserProfilePic("/media/" + "c".repeat(64) + ".jpg");
+        story.setText("Day 12 of learning React hooks");
+        story.setMediaUrl("/media/" + "d".repeat(64) + ".jpg");
+        story.setCreatedAt(new Date(1_700_000_000_000L));
+        story.setViewCount(100_000);
+        return story;
+    }
+
+    static MultipartFile upload(String originalFilename) {
+        return new MultipartFile() {
+            @Override
+            public String getName() {
+                return "media";
+            }
+
+            @Override
+            public String getOriginalFilename() {
+                return originalFilename;
+            }
+
+            @Override
+            public String getContentType() {
+                return "application/octet-stream";
+            }
+
+            @Override
+            public boolean isEmpty() {
+                return false;
+            }
+
+            @Override
+            public long getSize() {
+                return 1024;
+            }
+
+            @Override
+            public byte[] getBytes() {
+                return new byte[1024];
+            }
+
+            @Override
+            public InputStream getInputStream() {
+                return new ByteArrayInputStream(getBytes());
+            }
+
+            @Override
+            public void transferTo(File dest) {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
@@ -0,0 +1,44 @@
+package com.skillshare.backend.benchmarks;
+
+import com.skillshare.backend.services.HyperLogLog;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process cost of recording views on one hot story: many threads adding to the same
+ * HyperLogLog sketch, and reading the approximate count shown to non-owners.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class StoryViewBenchmark {
+
+    private HyperLogLog sketch;
+    private String[] viewers;
+
+    @Setup
+    public void setUp() {
+        sketch = new HyperLogLog();
+        viewers = new String[100_000];
+        for (int i = 0; i < viewers.length; i++) {
+            viewers[i] = String.format("%024x", i);
+            sketch.add(viewers[i]);
+        }
+    }
+
+    @Benchmark
+    public void recordView() {
+        sketch.add(viewers[ThreadLocalRandom.current().nextInt(viewers.length)]);
+    }
+
+    @Benchmark
+    public long approximateCount() {
+        return sketch.estimate();
+    }
+}
@@ -0,0 +1,144 @@
+package com.skillshare.backend.benchmarks;
+
+import com.skillshare.backend.model.User;
+import com.skillshare.backend.responses.UserSummary;
+import com.skillshare.backend.services.UserSearchService;
+import org.bson.BsonRegularExpression;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoExceptionTranslator;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * User search as served by /api/auth/search: UserSearchService with and without its prefix cache,
+ * next to the old contains-scan filtering. The MongoTemplate stand-in answers from a sorted copy of the
+ * searchKeys multikey index and reports how many index entries each search read, so a change that
+ * stops the scan from ending at the limit (a sort, a non-anchored regex) shows up here.
+ * It models the index walk only, not MongoDB's planner; check explain() on a real collection too.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserSearchBenchmark {
+
+    private static final String[] QUERIES = {"a", "am", "ama", "ni", "nim", "ka", "kas", "per", "fer", "user12"};
+
+    @Param({"0", "10000"})
+    public long cacheSize;
+
+    @Param({"1000000"})
+    public int userCount;
+
+    private List<User> users;
+    private InMemoryMongoTemplate mongoTemplate;
+    private UserSearchService searchService;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        users = StandIns.users(userCount, 7);
+        mongoTemplate = new InMemoryMongoTemplate(users);
+        searchService = new UserSearchService(cacheSize, 30);
+        StandIns.inject(searchService, "mongoTemplate", mongoTemplate);
+        StandIns.inject(searchService, "maxResults", 20);
+    }
+
+    // Index entries read per search; stays near the limit when the query can stop early
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class IndexReads {
+        public long indexEntries;
+        public long searches;
+    }
+
+    private String nextQuery() {
+        next = (next + 1) % QUERIES.length;
+        return QUERIES[next];
+    }
+
+    @Benchmark
+    public List<UserSummary> prefixSearch(IndexReads reads) {
+        long before = mongoTemplate.entriesRead;
+        List<UserSummary> page = searchService.search(nextQuery(), 20);
+        reads.indexEntries += mongoTemplate.entriesRead - before;
+        reads.searches++;
+        return page;
+    }
+
+    // What searchUsers did before the searchKeys index: a case-insensitive contains over every user
+    @Benchmark
+    public List<User> legacyContainsScan() {
+        String text = nextQuery().toLowerCase(Locale.ROOT);
+        return users.stream()
+                .filter(u -> u.getName().toLowerCase(Locale.ROOT).contains(text)
+                        || u.getEmail().toLowerCase(Locale.ROOT).contains(text))
+                .collect(Collectors.toList());
+    }
+
+    // Answers only the anchored searchKeys regex query UserSearchService issues, the way an IXSCAN over the
+    // multikey index does: seek to the prefix, read keys in order, skip repeated documents, stop at the limit
+    static final class InMemoryMongoTemplate extends MongoTemplate {
+
+        private final String[] keys;
+        private final User[] owners;
+        long entriesRead;
+
+        InMemoryMongoTemplate(List<User> users) {
+            super((MongoDatabaseFactory) Proxy.newProxyInstance(MongoDatabaseFactory.class.getClassLoader(),
+                    new Class<?>[]{MongoDatabaseFactory.class}, (proxy, method, args) -> {
+                        if (method.getName().equals("getExceptionTranslator")) return new MongoExceptionTranslator();
+                        throw new UnsupportedOperationException(method.getName());
+                    }));
+            List<Object[]> entries = new ArrayList<>();
+            for (User user : users) {
+                for (String key : user.getSearchKeys()) entries.add(new Object[]{key, user});
+            }
+            entries.sort(Comparator.comparing((Object[] e) -> (String) e[0]));
+            keys = new String[entries.size()];
+            owners = new User[entries.size()];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = (String) entries.get(i)[0];
+                owners[i] = (User) entries.get(i)[1];
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> List<T> find(Query query, Class<T> entityClass) {
+            // A sort on the multikey field cannot come from the index; MongoDB would read every match first
+            if (query.isSorted()) throw new UnsupportedOperationException("blocking sort: " + query.getSortObject());
+            Object regex = query.getQueryObject().get("searchKeys");
+            String pattern = regex instanceof Pattern p ? p.pattern()
+                    : regex instanceof BsonRegularExpression b ? b.getPattern() : String.valueOf(regex);
+            if (!pattern.startsWith("^")) throw new UnsupportedOperationException("unanchored regex: " + pattern);
+            String prefix = pattern.substring(1).replaceAll("\\\\(.)", "$1");
+            int limit = query.getLimit() > 0 ? query.getLimit() : Integer.MAX_VALUE;
+
+            int start = Arrays.binarySearch(keys, prefix);
+            if (start < 0) start = -start - 1;
+            List<T> matches = new ArrayList<>();
+            Set<String> seen = new HashSet<>();
+            for (int i = start; i < keys.length && keys[i].startsWith(prefix) && matches.size() < limit; i++) {
+                entriesRead++;
+                if (seen.add(owners[i].getId())) matches.add((T) owners[i]);
+            }
+            return matches;
+        }
+    }
+}
@@ -2,10 +2,12 @@ package com.skillshare.backend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 
 @SpringBootApplication
 @EnableMethodSecurity // Enables @PreAuthorize and @Secured
+@EnableScheduling // Runs @Scheduled jobs such as the reaction buffer flush
 public class SkillShareBackendApplication {
     public static void main(String[] args) {
         SpringApplication.run(SkillShareBackendApplication.class, args);
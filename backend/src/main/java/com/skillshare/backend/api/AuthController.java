@@ -4,11 +4,17 @@ import com.skillshare.backend.model.User;
 import com.skillshare.backend.repository.UserRepository;
 import com.skillshare.backend.requests.LoginRequest;
 import com.skillshare.backend.requests.RegisterRequest;
+import com.skillshare.backend.responses.UserSummary;
+import com.skillshare.backend.security.AuthCache;
 import com.skillshare.backend.security.JwtUtil;
+import com.skillshare.backend.services.ImageVariantService;
+import com.skillshare.backend.services.MediaStorageService;
+import com.skillshare.backend.services.PasswordHashingService;
+import com.skillshare.backend.services.UserProfileCache;
+import com.skillshare.backend.services.UserSearchService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.*;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -16,8 +22,11 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.File;
 import java.io.IOException;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Controller for authentication and user profile management.
@@ -28,8 +37,13 @@ import java.util.stream.Collectors;
 public class AuthController {
 
     @Autowired private UserRepository userRepo;
-    @Autowired private PasswordEncoder encoder;
+    @Autowired private PasswordHashingService passwordHashing;
     @Autowired private JwtUtil jwtUtil;
+    @Autowired private AuthCache authCache;
+    @Autowired private UserSearchService userSearchService;
+    @Autowired private MediaStorageService mediaStorage;
+    @Autowired private ImageVariantService imageVariants;
+    @Autowired private UserProfileCache userProfiles;
 
     //Register a new user.
      
@@ -45,7 +59,11 @@ public class AuthController {
         user.setName(req.getName());
         user.setLastName(req.getLastName());
         user.setEmail(req.getEmail());
-        user.setPassword(encoder.encode(req.getPassword()));
+        try {
+            user.setPassword(passwordHashing.encode(req.getPassword()));
+        } catch (RejectedExecutionException e) {
+            return tooBusy();
+        }
         userRepo.save(user);
         return ResponseEntity.ok("User registered");
     }
@@ -58,8 +76,14 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Email and password are required");
         }
         User user = userRepo.findByEmail(req.getEmail());
-        if (user != null && encoder.matches(req.getPassword(), user.getPassword())) {
-            String token = jwtUtil.generateToken(user.getEmail());
+        boolean valid;
+        try {
+            valid = user != null && passwordHashing.matches(req.getPassword(), user.getPassword());
+        } catch (RejectedExecutionException e) {
+            return tooBusy();
+        }
+        if (valid) {
+            String token = jwtUtil.generateToken(user.getEmail(), user.getTokenVersion());
             return ResponseEntity.ok(token);
         }
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid credentials");
@@ -83,25 +107,33 @@ public class AuthController {
         if (name != null) user.setName(name);
         if (lastName != null) user.setLastName(lastName);
 
-        String folderPath = System.getProperty("user.dir") + "/images/";
-        new File(folderPath).mkdirs();
-
+        String previousProfilePic = user.getProfilePic();
+        String previousCoverPic = user.getCoverPic();
         try {
             if (profilePic != null && !profilePic.isEmpty()) {
-                String profileName = "profile_" + user.getId() + ".jpg";
-                profilePic.transferTo(new File(folderPath + profileName));
-                user.setProfilePic("/images/" + profileName);
+                user.setProfilePic(mediaStorage.store(profilePic).url());
             }
 
             if (coverPic != null && !coverPic.isEmpty()) {
-                String coverName = "cover_" + user.getId() + ".jpg";
-                coverPic.transferTo(new File(folderPath + coverName));
-                user.setCoverPic("/images/" + coverName);
+                user.setCoverPic(mediaStorage.store(coverPic).url());
             }
 
             userRepo.save(user);
+            authCache.invalidateUser(email);
+            userProfiles.invalidate(user.getId());
+            // Replaced pictures lose their reference from this user
+            if (!Objects.equals(previousProfilePic, user.getProfilePic())) {
+                mediaStorage.release(previousProfilePic);
+                imageVariants.submit(user.getProfilePic()); // Avatar sizes are generated in the background
+            }
+            if (!Objects.equals(previousCoverPic, user.getCoverPic())) {
+                mediaStorage.release(previousCoverPic);
+                imageVariants.submit(user.getCoverPic());
+            }
             return ResponseEntity.ok("Profile updated");
 
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(e.getMessage());
         } catch (IOException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Image upload failed");
         }
@@ -117,7 +149,12 @@ public class AuthController {
         }
 
         userRepo.delete(user);
+        authCache.invalidateUser(email);
+        userProfiles.invalidate(user.getId());
 
+        mediaStorage.release(user.getProfilePic());
+        mediaStorage.release(user.getCoverPic());
+        // Pictures saved before content addressing
         String folderPath = System.getProperty("user.dir") + "/images/";
         new File(folderPath + "profile_" + user.getId() + ".jpg").delete();
         new File(folderPath + "cover_" + user.getId() + ".jpg").delete();
@@ -133,6 +170,7 @@ public class AuthController {
         if (user == null) return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
         user.setCategories(categories);
         userRepo.save(user);
+        authCache.invalidateUser(email);
         return ResponseEntity.ok("Categories updated");
     }
 
@@ -154,6 +192,18 @@ public class AuthController {
                 .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found"));
     }
 
+    //Get public profiles for many user IDs at once (e.g. every author on a feed page).
+
+    @GetMapping("/profiles")
+    public ResponseEntity<?> getProfiles(@RequestParam List<String> ids) {
+        if (ids.size() > 200) {
+            return ResponseEntity.badRequest().body("At most 200 ids per request");
+        }
+        Map<String, UserSummary> profiles = userProfiles.getAll(new LinkedHashSet<>(ids));
+        List<UserSummary> ordered = ids.stream().distinct().map(profiles::get).filter(Objects::nonNull).toList();
+        return ResponseEntity.ok(ordered);
+    }
+
     //Logout endpoint (clears Spring Security context).
     
     @GetMapping("/logout")
@@ -162,15 +212,11 @@ public class AuthController {
         return ResponseEntity.ok("Logged out");
     }
 
-    //Search users by name (case-insensitive)
+    //Search users by name, last name or email prefix (case-insensitive, indexed)
      
     @GetMapping("/search")
-    public ResponseEntity<?> searchUsers(@RequestParam String name) {
-        List<User> users = userRepo.findAll()
-            .stream()
-            .filter(u -> u.getName().toLowerCase().contains(name.toLowerCase()))
-            .collect(Collectors.toList());
-        return ResponseEntity.ok(users);
+    public ResponseEntity<?> searchUsers(@RequestParam String name, @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(userSearchService.search(name, limit));
     }
 
     //Change user password
@@ -185,11 +231,17 @@ public class AuthController {
         if (user == null)
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
 
-        if (!encoder.matches(oldPassword, user.getPassword()))
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Incorrect old password");
+        try {
+            if (!passwordHashing.matches(oldPassword, user.getPassword()))
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Incorrect old password");
 
-        user.setPassword(encoder.encode(newPassword));
+            user.setPassword(passwordHashing.encode(newPassword));
+        } catch (RejectedExecutionException e) {
+            return tooBusy();
+        }
+        user.setTokenVersion(user.getTokenVersion() + 1); // invalidate tokens issued with the old password
         userRepo.save(user);
+        authCache.invalidateUser(email);
         return ResponseEntity.ok("Password changed successfully");
     }
 
@@ -202,6 +254,7 @@ public class AuthController {
 
         user.setTokenVersion(user.getTokenVersion() + 1); // invalidate all tokens
         userRepo.save(user);
+        authCache.invalidateUser(email);
         return ResponseEntity.ok("Logged out from all devices");
     }
 
@@ -214,7 +267,9 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
 
         user.setStatus("deactivated");
+        user.setTokenVersion(user.getTokenVersion() + 1); // invalidate all tokens
         userRepo.save(user);
+        authCache.invalidateUser(email);
         return ResponseEntity.ok("Account deactivated");
     }
 
@@ -231,6 +286,15 @@ public class AuthController {
 
         user.setEmail(newEmail);
         userRepo.save(user);
+        authCache.invalidateUser(oldEmail);
+        userProfiles.invalidate(user.getId());
         return ResponseEntity.ok("Email updated successfully");
     }
-}
\ No newline at end of file
+
+    // Password hashing is at capacity; the client should retry shortly
+    private ResponseEntity<?> tooBusy() {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Too many requests, please try again");
+    }
+}
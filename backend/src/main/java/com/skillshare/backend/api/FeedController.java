@@ -0,0 +1,43 @@
+package com.skillshare.backend.api;
+
+import com.skillshare.backend.responses.KeysetCursor;
+import com.skillshare.backend.services.TimelineService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/feed")
+public class FeedController {
+
+    @Autowired
+    private TimelineService timelineService;
+
+    @Value("${feed.page-size:20}")
+    private int defaultPageSize;
+    @Value("${feed.max-page-size:100}")
+    private int maxPageSize;
+
+    /**
+     * Endpoint to fetch a user's personalized home feed one page at a time, newest first.
+     * Pass the returned nextCursor back as cursor to get the following page.
+     */
+    @GetMapping
+    public ResponseEntity<?> getHomeFeed(
+            @RequestParam String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        int pageSize = Math.min(Math.max(limit != null ? limit : defaultPageSize, 1), maxPageSize);
+
+        KeysetCursor before;
+        try {
+            before = KeysetCursor.parse(cursor); // <createdAt millis>_<post id>
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid cursor");
+        }
+
+        return ResponseEntity.ok(timelineService.page(userId, before != null ? before.time() : null,
+                before != null ? before.id() : null, pageSize));
+    }
+}
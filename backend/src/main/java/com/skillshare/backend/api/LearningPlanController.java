@@ -2,11 +2,28 @@ package com.skillshare.backend.api;
 
 import com.skillshare.backend.model.LearningPlan;
 import com.skillshare.backend.model.Milestone;
+import com.skillshare.backend.model.User;
 import com.skillshare.backend.repository.LearningPlanRepository;
+import com.skillshare.backend.repository.LearningPlanTagsListener;
+import com.skillshare.backend.repository.PlanViewRepository;
+import com.skillshare.backend.responses.FeedPage;
+import com.skillshare.backend.responses.LearningStatsSummary;
+import com.skillshare.backend.responses.PlanSummary;
+import com.skillshare.backend.responses.TagCount;
+import com.skillshare.backend.services.LearningStatsService;
+import com.skillshare.backend.services.PlanCatalogService;
+import com.skillshare.backend.services.PlanTagIndex;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.regex.Pattern;
 
 @RestController
 @RequestMapping("/api/plans")
@@ -14,11 +31,27 @@ public class LearningPlanController {
 
     @Autowired
     private LearningPlanRepository repo;
+    @Autowired
+    private PlanViewRepository planViewRepo;
+    @Autowired
+    private PlanTagIndex tagIndex;
+    @Autowired
+    private PlanCatalogService catalog;
+    @Autowired
+    private LearningStatsService learningStats;
+
+    @Value("${plans.page-size:20}")
+    private int defaultPageSize;
+    @Value("${plans.max-page-size:100}")
+    private int maxPageSize;
 
     // CRUD Plan ///
     @PostMapping
     public LearningPlan create(@RequestBody LearningPlan plan) {
-        return repo.save(plan);
+        LearningPlan saved = learningStats.createPlan(plan);
+        tagIndex.update(List.of(), saved.getNormalizedTags());
+        catalog.planChanged(null, saved);
+        return saved;
     }
 
     @GetMapping("/user/{userId}")
@@ -26,51 +59,121 @@ public class LearningPlanController {
         return repo.findByUserId(userId);
     }
 
+    // Completion rate, overdue milestones and streaks, read from the user's running totals
+    @GetMapping("/user/{userId}/stats")
+    public LearningStatsSummary getUserStats(@PathVariable String userId) {
+        return learningStats.stats(userId);
+    }
+
+    // The first view of a public plan by each signed-in user other than its owner counts toward the catalog ranking
     @GetMapping("/{id}")
-    public LearningPlan getPlan(@PathVariable String id) {
-        return repo.findById(id).orElse(null);
+    public LearningPlan getPlan(@PathVariable String id, @AuthenticationPrincipal User viewer) {
+        LearningPlan plan = repo.findById(id).orElse(null);
+        if (plan != null && plan.isPublic() && viewer != null && viewer.getId() != null
+                && !viewer.getId().equals(plan.getUserId())) {
+            repo.recordView(id, viewer.getId());
+        }
+        return plan;
     }
 
+    /**
+     * Public plan summaries sorted by "recent" (newest first) or "popular" (most viewed first).
+     * Pass the returned nextCursor back as cursor to get the following page.
+     */
     @GetMapping("/public")
-    public List<LearningPlan> getPublicPlans() {
-        return repo.findByIsPublicTrue();
+    public ResponseEntity<?> getPublicPlans(
+            @RequestParam(defaultValue = PlanCatalogService.RECENT) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        int pageSize = Math.min(Math.max(limit != null ? limit : defaultPageSize, 1), maxPageSize);
+        try {
+            FeedPage<PlanSummary> page = catalog.page(sort, cursor, pageSize);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
+    /**
+     * Plans with a tag, matched case-insensitively through the indexed normalizedTags field, newest first.
+     * Pass the returned nextCursor back as cursor to get the following page.
+     */
     @GetMapping("/tag/{tag}")
-    public List<LearningPlan> getPlansByTag(@PathVariable String tag) {
-        return repo.findByTagsContainingIgnoreCase(tag);
+    public ResponseEntity<?> getPlansByTag(
+            @PathVariable String tag,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        int pageSize = Math.min(Math.max(limit != null ? limit : defaultPageSize, 1), maxPageSize);
+        String normalized = LearningPlanTagsListener.normalize(tag);
+
+        if (cursor != null && !cursor.isEmpty() && !ObjectId.isValid(cursor)) {
+            return ResponseEntity.badRequest().body("Invalid cursor");
+        }
+        ObjectId beforeId = cursor == null || cursor.isEmpty() ? null : new ObjectId(cursor);
+
+        List<LearningPlan> items;
+        if (tagIndex.normalizedTagsFilled()) {
+            items = beforeId == null
+                    ? repo.findByNormalizedTags(normalized, PageRequest.of(0, pageSize, Sort.by(Sort.Direction.DESC, "_id")))
+                    : repo.findByNormalizedTagsBefore(normalized, beforeId, PageRequest.of(0, pageSize));
+        } else {
+            // Until the backfill is done, plans saved before normalizedTags existed are matched on their raw tags
+            String pattern = "^\\s*" + Pattern.quote(normalized) + "\\s*$";
+            items = beforeId == null
+                    ? repo.findByTagIncludingUnfilled(normalized, pattern, PageRequest.of(0, pageSize))
+                    : repo.findByTagIncludingUnfilledBefore(normalized, pattern, beforeId, PageRequest.of(0, pageSize));
+        }
+
+        String nextCursor = items.size() < pageSize ? null : items.get(items.size() - 1).getId();
+        return ResponseEntity.ok(new FeedPage<>(items, nextCursor));
+    }
+
+    // Most used tags starting with the typed text
+    @GetMapping("/tags/autocomplete")
+    public List<TagCount> autocompleteTags(@RequestParam(defaultValue = "") String prefix,
+                                           @RequestParam(required = false) Integer limit) {
+        return tagIndex.autocomplete(prefix, limit);
+    }
+
+    // Plan counts for the given tags, or the most used tags when none are given
+    @GetMapping("/tags/facets")
+    public List<TagCount> tagFacets(@RequestParam(required = false) List<String> tags,
+                                    @RequestParam(required = false) Integer limit) {
+        return tags == null || tags.isEmpty() ? tagIndex.facets(limit) : tagIndex.counts(tags);
     }
 
     @PutMapping("/{id}")
     public LearningPlan update(@PathVariable String id, @RequestBody LearningPlan plan) {
-        plan.setId(id);
-        return repo.save(plan);
+        // Replaced atomically; the index, stats and catalog are diffed against the document it replaced
+        LearningPlan existing = learningStats.replacePlan(id, plan);
+        tagIndex.update(existing != null ? LearningPlanTagsListener.normalize(existing.getTags()) : List.of(),
+                plan.getNormalizedTags());
+        catalog.planChanged(existing, plan);
+        return plan;
     }
     //delete
     @DeleteMapping("/{id}")
     public void delete(@PathVariable String id) {
-        repo.deleteById(id);
+        LearningPlan plan = learningStats.deletePlan(id);
+        if (plan != null) {
+            planViewRepo.deleteByPlanId(id);
+            tagIndex.update(LearningPlanTagsListener.normalize(plan.getTags()), List.of());
+            catalog.planChanged(plan, null);
+        }
     }
 
     //Extra Features  Add-resource//
     @PutMapping("/{id}/add-resource")
     public LearningPlan addResource(@PathVariable String id, @RequestBody String resource) {
-        LearningPlan plan = repo.findById(id).orElse(null);
-        if (plan != null) {
-            plan.getResources().add(resource);
-            return repo.save(plan);
-        }
-        return null;
+        return repo.addResource(id, resource);
     }
    //Add update// //
     @PutMapping("/{id}/update-milestones")
     public LearningPlan updateMilestones(@PathVariable String id, @RequestBody List<Milestone> milestones) {
-        LearningPlan plan = repo.findById(id).orElse(null);
-        if (plan != null) {
-            plan.setMilestones(milestones);
-            return repo.save(plan);
-        }
-        return null;
+        // Only the milestones and their counters are written, so concurrent edits to the rest of the plan survive
+        LearningPlan saved = learningStats.replaceMilestones(id, milestones);
+        if (saved != null) catalog.planChanged(null, saved); // Progress shown in the catalog changed
+        return saved;
     }
 
 
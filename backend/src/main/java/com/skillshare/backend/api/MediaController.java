@@ -0,0 +1,20 @@
+package com.skillshare.backend.api;
+
+import com.skillshare.backend.services.MediaStorageService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/media")
+public class MediaController {
+
+    @Autowired
+    private MediaStorageService mediaStorage;
+
+    // Dedupe ratio and bytes saved by the content-addressed media store
+    @GetMapping("/stats")
+    public ResponseEntity<?> getStats() {
+        return ResponseEntity.ok(mediaStorage.stats());
+    }
+}
@@ -1,20 +1,31 @@
 package com.skillshare.backend.api;
 
 import com.skillshare.backend.model.Post;
+import com.skillshare.backend.repository.CommentRepository;
 import com.skillshare.backend.repository.PostRepository;
-import com.skillshare.backend.repository.UserRepository;
-
-import org.apache.commons.io.FilenameUtils;
+import com.skillshare.backend.responses.FeedPage;
+import com.skillshare.backend.responses.KeysetCursor;
+import com.skillshare.backend.responses.PostSummary;
+import com.skillshare.backend.responses.ReactionUpdate;
+import com.skillshare.backend.services.ImageVariantService;
+import com.skillshare.backend.services.MediaStorageService;
+import com.skillshare.backend.services.MediaStorageService.StoredMedia;
+import com.skillshare.backend.services.ReactionBuffer;
+import com.skillshare.backend.services.TimelineService;
+import com.skillshare.backend.services.UserProfileCache;
+
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import com.skillshare.backend.model.Comment;
-import com.skillshare.backend.model.User;
 
 
 
-import java.io.File;
 import java.io.IOException;
 import java.util.*;
 
@@ -25,7 +36,24 @@ public class PostController {
     @Autowired
     private PostRepository postRepo;
     @Autowired
-    private UserRepository userRepo;
+    private CommentRepository commentRepo;
+    @Autowired
+    private UserProfileCache userProfiles;
+    @Autowired
+    private ReactionBuffer reactionBuffer;
+    @Autowired
+    private MediaStorageService mediaStorage;
+    @Autowired
+    private ImageVariantService imageVariants;
+    @Autowired
+    private TimelineService timelineService;
+
+    @Value("${feed.page-size:20}")
+    private int defaultPageSize;
+    @Value("${feed.max-page-size:100}")
+    private int maxPageSize;
+    @Value("${feed.latest-comments:3}")
+    private int latestComments;
 
     /**
      * Endpoint to create a new post.
@@ -36,40 +64,34 @@ public class PostController {
             @RequestParam String userId,
             @RequestParam(required = false) String content,
             @RequestParam(required = false) List<MultipartFile> media) {
-        // Define the folder path for storing media files
-        String folderPath = System.getProperty("user.dir") + "/media/";
-        new File(folderPath).mkdirs(); // Ensure the folder exists
-
-        List<String> mediaUrls = new ArrayList<>();
-        List<String> mediaTypes = new ArrayList<>();
-
-        // Process each media file if provided
-        if (media != null && !media.isEmpty()) {
-            for (MultipartFile file : media) {
-                String ext = FilenameUtils.getExtension(file.getOriginalFilename()).toLowerCase();
-                String type = ext.matches("mp4|webm") ? "video" : "image"; // Determine media type
-                String filename = UUID.randomUUID() + "." + ext; // Generate a unique filename
-
-                try {
-                    // Save the file to the server
-                    file.transferTo(new File(folderPath + filename));
-                    mediaUrls.add("/media/" + filename); // Store the file URL
-                    mediaTypes.add(type); // Store the media type
-                } catch (IOException e) {
-                    return ResponseEntity.status(500).body("Media upload failed");
-                }
-            }
+        // Stream all media files to disk in parallel; nothing is kept if any file fails
+        List<StoredMedia> stored;
+        try {
+            stored = mediaStorage.storeAll(media);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(413).body(e.getMessage());
+        } catch (IOException e) {
+            return ResponseEntity.status(500).body("Media upload failed");
         }
 
         // Create a new Post object and populate its fields
         Post post = new Post();
         post.setUserId(userId);
         post.setContent(content);
-        post.setMediaUrls(mediaUrls);
-        post.setMediaTypes(mediaTypes);
+        post.setMediaUrls(stored.stream().map(StoredMedia::url).toList());
+        post.setMediaTypes(stored.stream().map(StoredMedia::type).toList());
         post.setCreatedAt(new Date());
 
-        return ResponseEntity.ok(postRepo.save(post));
+        Post saved;
+        try {
+            saved = postRepo.save(post);
+        } catch (RuntimeException e) {
+            mediaStorage.releaseAll(stored); // Don't keep references for a post that was never saved
+            throw e;
+        }
+        imageVariants.submitAll(saved.getMediaUrls()); // Thumbnails are generated in the background
+        timelineService.publish(saved); // Fanned out to interested users' timelines in the background
+        return ResponseEntity.ok(saved);
     }
 
     /**
@@ -85,41 +107,39 @@ public class PostController {
         if (optionalPost.isEmpty())
             return ResponseEntity.notFound().build();
 
-        Post post = optionalPost.get();
-
-        // Update content if provided
-        if (content != null)
-            post.setContent(content);
-
         // Process and update media files if provided
+        List<String> previousUrls = optionalPost.get().getMediaUrls();
+        List<StoredMedia> stored = List.of();
         if (media != null && !media.isEmpty()) {
-            String folderPath = System.getProperty("user.dir") + "/media/";
-            new File(folderPath).mkdirs(); // Ensure the folder exists
-            List<String> mediaUrls = new ArrayList<>();
-            List<String> mediaTypes = new ArrayList<>();
-
-            for (MultipartFile file : media) {
-                String ext = FilenameUtils.getExtension(file.getOriginalFilename()).toLowerCase();
-                String type = ext.matches("mp4|webm") ? "video" : "image"; // Determine media type
-                String filename = UUID.randomUUID() + "." + ext; // Generate a unique filename
-
-                try {
-                    // Save the file to the server
-                    file.transferTo(new File(folderPath + filename));
-                    mediaUrls.add("/media/" + filename); // Store the file URL
-                    mediaTypes.add(type); // Store the media type
-                } catch (IOException e) {
-                    return ResponseEntity.status(500).body("Media upload failed");
-                }
+            try {
+                stored = mediaStorage.storeAll(media);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(413).body(e.getMessage());
+            } catch (IOException e) {
+                return ResponseEntity.status(500).body("Media upload failed");
             }
-
-            // Update the post's media URLs and types
-            post.setMediaUrls(mediaUrls);
-            post.setMediaTypes(mediaTypes);
         }
 
-        // Save the updated post to the database and return the response
-        return ResponseEntity.ok(postRepo.save(post));
+        // Update only the edited fields, so comment and reaction counters written meanwhile are kept
+        Post saved;
+        try {
+            saved = postRepo.updateEditableFields(postId, content,
+                    stored.isEmpty() ? null : stored.stream().map(StoredMedia::url).toList(),
+                    stored.isEmpty() ? null : stored.stream().map(StoredMedia::type).toList());
+        } catch (RuntimeException e) {
+            mediaStorage.releaseAll(stored);
+            throw e;
+        }
+        if (saved == null) {
+            mediaStorage.releaseAll(stored); // Deleted while the media was uploading
+            return ResponseEntity.notFound().build();
+        }
+        // Replaced media loses its reference from this post
+        if (!stored.isEmpty()) {
+            mediaStorage.releaseUrls(previousUrls);
+            imageVariants.submitAll(saved.getMediaUrls());
+        }
+        return ResponseEntity.ok(saved);
     }
 
     /**
@@ -128,11 +148,14 @@ public class PostController {
     @DeleteMapping("/{postId}")
     public ResponseEntity<?> deletePost(@PathVariable String postId) {
         // Check if the post exists
-        if (!postRepo.existsById(postId))
+        Optional<Post> optionalPost = postRepo.findById(postId);
+        if (optionalPost.isEmpty())
             return ResponseEntity.notFound().build();
 
-        // Delete the post
+        // Delete the post with its comments and drop its references to media files
         postRepo.deleteById(postId);
+        commentRepo.deleteByPostId(postId);
+        mediaStorage.releaseUrls(optionalPost.get().getMediaUrls());
         return ResponseEntity.ok("Post deleted");
     }
 
@@ -143,17 +166,48 @@ public class PostController {
     public ResponseEntity<?> getPostById(@PathVariable String postId) {
         // Fetch the post and return it if found
         return postRepo.findById(postId)
+                .map(reactionBuffer::applyPending)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Endpoint to fetch the post feed one page at a time, newest first.
+     * Pass the returned nextCursor back as cursor to get the following page.
+     */
+    @GetMapping("/feed")
+    public ResponseEntity<?> getFeed(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        int pageSize = Math.min(Math.max(limit != null ? limit : defaultPageSize, 1), maxPageSize);
+
+        KeysetCursor before;
+        try {
+            before = KeysetCursor.parse(cursor); // <createdAt millis>_<post id>
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid cursor");
+        }
+
+        List<PostSummary> items = postRepo.findFeedPage(before != null ? before.time() : null,
+                before != null ? before.id() : null, pageSize, latestComments);
+        String nextCursor = null;
+        if (items.size() == pageSize) {
+            PostSummary last = items.get(items.size() - 1);
+            nextCursor = KeysetCursor.of(last.getCreatedAt(), last.getId());
+        }
+        return ResponseEntity.ok(new FeedPage<>(items, nextCursor));
+    }
+
     /**
      * Endpoint to fetch all posts.
+     * Returns every post with all comments and reactions; prefer /feed for listing.
      */
     @GetMapping
     public ResponseEntity<?> getAllPosts() {
-        // Return all posts from the database
-        return ResponseEntity.ok(postRepo.findAll());
+        // Return all posts from the database, including reactions not flushed yet
+        List<Post> posts = postRepo.findAll();
+        posts.forEach(reactionBuffer::applyPending);
+        return ResponseEntity.ok(posts);
     }
 
     /**
@@ -161,52 +215,88 @@ public class PostController {
      */
     @GetMapping("/user/{userId}")
     public ResponseEntity<?> getPostsByUser(@PathVariable String userId) {
-        // Return all posts created by the specified user
-        return ResponseEntity.ok(postRepo.findByUserId(userId));
+        // Return all posts created by the specified user, including reactions not flushed yet
+        List<Post> posts = postRepo.findByUserId(userId);
+        posts.forEach(reactionBuffer::applyPending);
+        return ResponseEntity.ok(posts);
     }
 
 // Backend Java (Controller)
+// Inserts the comment into the comments collection and bumps the post's commentCount
 @PostMapping("/{postId}/comment")
 public ResponseEntity<?> addComment(@PathVariable String postId, @RequestBody Comment comment) {
-    Optional<Post> optionalPost = postRepo.findById(postId);
-    if (optionalPost.isEmpty()) return ResponseEntity.notFound().build();
-
-    Post post = optionalPost.get();
-    if (post.getComments() == null) post.setComments(new ArrayList<>());
+    comment.setId(null);
+    comment.setPostId(postId);
     comment.setCommentedAt(new Date());
     if (comment.getUserName() == null || comment.getUserName().isEmpty()) {
         comment.setUserName(getUserNameById(comment.getUserId()));
     }
-    post.getComments().add(comment);
-    return ResponseEntity.ok(postRepo.save(post));
+    if (!postRepo.incrementCommentCount(postId, 1)) return ResponseEntity.notFound().build();
+    try {
+        return ResponseEntity.ok(commentRepo.insert(comment));
+    } catch (RuntimeException e) {
+        postRepo.incrementCommentCount(postId, -1);
+        throw e;
+    }
 }
 
+/**
+ * Endpoint to fetch a post's comments one page at a time, oldest first.
+ * Pass the returned nextCursor back as cursor to get the following page.
+ */
+@GetMapping("/{postId}/comments")
+public ResponseEntity<?> getComments(
+        @PathVariable String postId,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer limit) {
+    int pageSize = Math.min(Math.max(limit != null ? limit : defaultPageSize, 1), maxPageSize);
+    PageRequest page = PageRequest.of(0, pageSize, Sort.by("commentedAt", "id"));
+
+    KeysetCursor after;
+    ObjectId afterId;
+    try {
+        after = KeysetCursor.parse(cursor); // <commentedAt millis>_<comment id>
+        afterId = after != null ? after.objectId() : null;
+    } catch (IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body("Invalid cursor");
+    }
+
+    List<Comment> items = after == null
+            ? commentRepo.findByPostId(postId, page)
+            : commentRepo.findByPostIdAfter(postId, after.time(), afterId, page);
+
+    String nextCursor = null;
+    if (items.size() == pageSize) {
+        Comment last = items.get(items.size() - 1);
+        nextCursor = KeysetCursor.of(last.getCommentedAt(), last.getId());
+    }
+    return ResponseEntity.ok(new FeedPage<>(items, nextCursor));
+}
+
+// Buffers the reaction in memory; ReactionBuffer flushes it with a per-user $set in a batched bulk write
 @PutMapping("/{postId}/react")
 public ResponseEntity<?> reactToPost(
         @PathVariable String postId,
         @RequestParam String userId,
         @RequestParam String reaction
 ) {
-    Optional<Post> optionalPost = postRepo.findById(postId);
-    if (optionalPost.isEmpty()) return ResponseEntity.notFound().build();
-
-    Post post = optionalPost.get();
-    if (post.getReactions() == null) post.setReactions(new HashMap<>());
-    if (post.getReactionUsers() == null) post.setReactionUsers(new HashMap<>());
+    // userId becomes part of a field path, so it must not contain path operators
+    if (userId.isEmpty() || userId.contains(".") || userId.startsWith("$")) {
+        return ResponseEntity.badRequest().body("Invalid userId");
+    }
 
     // ✅ Auto-fetch name instead of receiving from frontend
     String userName = getUserNameById(userId);
 
-    post.getReactions().put(userId, reaction);
-    post.getReactionUsers().put(userId, userName);
-
-    return ResponseEntity.ok(postRepo.save(post));
+    if (!postRepo.existsById(postId)) return ResponseEntity.notFound().build();
+    reactionBuffer.record(postId, userId, userName, reaction);
+    return ResponseEntity.ok(new ReactionUpdate(postId, userId, userName, reaction));
 }
 
 
-// Helper method to lookup user name from user service or database
+// Helper method to lookup user name from the shared profile cache
 private String getUserNameById(String userId) {
-    return userRepo.findById(userId).map(User::getName).orElse("Anonymous");
+    return userProfiles.displayName(userId);
 }
 
 
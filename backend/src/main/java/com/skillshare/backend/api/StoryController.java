@@ -1,30 +1,67 @@
 package com.skillshare.backend.api;
 
 import com.skillshare.backend.model.Story;
-import com.skillshare.backend.model.User;
+import com.skillshare.backend.model.StoryView;
 import com.skillshare.backend.repository.StoryRepository;
-import com.skillshare.backend.repository.UserRepository;
+import com.skillshare.backend.repository.StoryViewRepository;
+import com.skillshare.backend.responses.FeedPage;
+import com.skillshare.backend.responses.KeysetCursor;
+import com.skillshare.backend.responses.StoryViewCount;
+import com.skillshare.backend.services.ImageVariantService;
+import com.skillshare.backend.services.MediaStorageService;
+import com.skillshare.backend.services.StoryCleanupService;
+import com.skillshare.backend.services.StoryViewService;
+import com.skillshare.backend.services.UserProfileCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 @RestController
 @RequestMapping("/api/stories")
 @CrossOrigin
 public class StoryController {
 
+    private static final Logger log = LoggerFactory.getLogger(StoryController.class);
+    private final AtomicLong uploads = new AtomicLong();
+
     @Autowired
     private StoryRepository storyRepo;
 
     @Autowired
-    private UserRepository userRepo;
+    private UserProfileCache userProfiles;
+
+    @Autowired
+    private MediaStorageService mediaStorage;
+
+    @Autowired
+    private ImageVariantService imageVariants;
+
+    @Autowired
+    private StoryViewService storyViews;
+
+    @Autowired
+    private StoryViewRepository storyViewRepo;
+
+    @Value("${logging.sample.story-uploads:100}")
+    private long uploadLogSampleRate;
+
+    @Value("${feed.page-size:20}")
+    private int defaultPageSize;
+    @Value("${feed.max-page-size:100}")
+    private int maxPageSize;
 
     // Upload a new story with logging and error handling
     @PostMapping
@@ -35,24 +72,20 @@ public class StoryController {
             @RequestParam(required = false) String text
     ) {
         try {
-            System.out.println("=== ADD STORY DEBUG ===");
-            System.out.println("Email: " + email);
-            System.out.println("UserId: " + userId);
-            System.out.println("Text: " + text);
-            System.out.println("Media: " + (media != null ? media.getOriginalFilename() : "No file uploaded"));
-
-            String mediaPath = null;
+            // One in uploadLogSampleRate uploads is logged; set the logger to DEBUG to see them all
+            if (log.isDebugEnabled() || uploads.incrementAndGet() % Math.max(1, uploadLogSampleRate) == 0) {
+                log.info("Story upload userId={} hasText={} media={} bytes={}", userId, text != null,
+                        media != null ? media.getContentType() : null, media != null ? media.getSize() : 0);
+            }
 
+            MediaStorageService.StoredMedia stored = null;
             if (media != null && !media.isEmpty()) {
-                String fileName = UUID.randomUUID() + "_" + media.getOriginalFilename();
-                String uploadPath = System.getProperty("user.dir") + "/uploads/";
-                new File(uploadPath).mkdirs();
-                File file = new File(uploadPath + fileName);
                 try {
-                    media.transferTo(file);
-                    mediaPath = "/uploads/" + fileName;
+                    stored = mediaStorage.store(media);
+                } catch (IllegalArgumentException e) {
+                    return ResponseEntity.status(413).body(e.getMessage());
                 } catch (IOException e) {
-                    e.printStackTrace();
+                    log.warn("Story media upload failed for userId={}", userId, e);
                     return ResponseEntity.status(500).body("Media upload failed: " + e.getMessage());
                 }
             }
@@ -61,40 +94,65 @@ public class StoryController {
             story.setEmail(email);
             story.setUserId(userId);
             story.setText(text);
-            story.setMediaUrl(mediaPath);
+            story.setMediaUrl(stored != null ? stored.url() : null);
 
             // Set user profile data in story
-            User user = userRepo.findById(userId).orElse(null);
-            if (user != null) {
-                story.setUserName(user.getName() + " " + user.getLastName());
-                story.setUserProfilePic(user.getProfilePic());
+            userProfiles.get(userId).ifPresent(profile -> {
+                story.setUserName(profile.getName() + " " + profile.getLastName());
+                story.setUserProfilePic(profile.getProfilePic());
+            });
+
+            Story saved;
+            try {
+                saved = storyRepo.save(story);
+            } catch (RuntimeException e) {
+                if (stored != null) mediaStorage.release(stored.url()); // No reference for an unsaved story
+                throw e;
             }
-
-            return ResponseEntity.ok(storyRepo.save(story));
+            imageVariants.submit(saved.getMediaUrl());
+            return ResponseEntity.ok(saved);
 
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Story upload failed for userId={}", userId, e);
             return ResponseEntity.status(500).body("Story upload failed: " + e.getMessage());
         }
     }
 
+    // Live stories, newest first, with view counts from one aggregation over their views
     @GetMapping
     public ResponseEntity<?> getAllStories() {
-        return ResponseEntity.ok(storyRepo.findAll(Sort.by(Sort.Direction.DESC, "createdAt")));
+        Date createdAfter = new Date(System.currentTimeMillis() - StoryCleanupService.STORY_TTL_MS);
+        List<Story> stories = storyRepo.findByCreatedAtAfter(createdAfter, Sort.by(Sort.Direction.DESC, "createdAt"));
+        Map<String, Long> views = storyViews.exactCounts(stories.stream().map(Story::getId).toList());
+        for (Story story : stories) story.setViewCount(views.getOrDefault(story.getId(), 0L));
+        return ResponseEntity.ok(stories);
     }
 
+    // One entry per author with live stories, with the viewer's unseen state worked out server-side
+    @GetMapping("/tray")
+    public ResponseEntity<?> getStoryTray(@RequestParam String viewerId) {
+        Date createdAfter = new Date(System.currentTimeMillis() - StoryCleanupService.STORY_TTL_MS);
+        return ResponseEntity.ok(storyRepo.findTray(viewerId, createdAfter));
+    }
+
+    // Records the view as an idempotent upsert in story_views; the story document is not rewritten
     @PutMapping("/view/{storyId}")
     public ResponseEntity<?> viewStory(@PathVariable String storyId, @RequestParam String viewerId) {
-        Optional<Story> optional = storyRepo.findById(storyId);
-        if (optional.isEmpty()) return ResponseEntity.status(404).body("Story not found");
+        if (!storyRepo.existsById(storyId)) return ResponseEntity.status(404).body("Story not found");
 
-        Story story = optional.get();
-        if (!story.getViewedBy().contains(viewerId)) {
-            story.getViewedBy().add(viewerId);
-            return ResponseEntity.ok(storyRepo.save(story));
-        }
+        storyViews.recordView(storyId, viewerId);
+        return ResponseEntity.ok(new StoryViewCount(storyId, storyViews.approximateCount(storyId), false));
+    }
 
-        return ResponseEntity.ok(story);
+    // Exact count for the story's owner, HyperLogLog estimate for anyone else
+    @GetMapping("/{id}/views/count")
+    public ResponseEntity<?> getViewCount(@PathVariable String id, @RequestParam String userId) {
+        Optional<Story> optionalStory = storyRepo.findById(id);
+        if (optionalStory.isEmpty()) return ResponseEntity.status(404).body("Story not found");
+
+        boolean owner = userId.equals(optionalStory.get().getUserId());
+        long count = owner ? storyViews.exactCount(id) : storyViews.approximateCount(id);
+        return ResponseEntity.ok(new StoryViewCount(id, count, owner));
     }
 
     @PutMapping("/{id}")
@@ -116,21 +174,25 @@ public ResponseEntity<?> updateStory(
 
     story.setText(text);
 
+    String previousMediaUrl = story.getMediaUrl();
+    boolean mediaReplaced = false;
     if (media != null && !media.isEmpty()) {
-        String uploadDir = System.getProperty("user.dir") + "/uploads/";
-        new File(uploadDir).mkdirs();
-        String filename = "story_" + id + "_" + media.getOriginalFilename();
-        File file = new File(uploadDir + filename);
         try {
-            media.transferTo(file);
-            story.setMediaUrl("/uploads/" + filename);
+            story.setMediaUrl(mediaStorage.store(media).url());
+            mediaReplaced = true;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(413).body(e.getMessage());
         } catch (IOException e) {
-            e.printStackTrace();
+            log.warn("Story media update failed for storyId={}", id, e);
             return ResponseEntity.status(500).body("Media upload failed: " + e.getMessage());
         }
     }
 
     storyRepo.save(story);
+    if (mediaReplaced) {
+        mediaStorage.release(previousMediaUrl);
+        imageVariants.submit(story.getMediaUrl());
+    }
     return ResponseEntity.ok(story);
 }
 
@@ -144,19 +206,39 @@ public ResponseEntity<?> updateStory(
                 return ResponseEntity.status(403).body("Unauthorized");
             }
             storyRepo.delete(story);
+            storyViews.deleteViews(id);
+            mediaStorage.release(story.getMediaUrl());
             return ResponseEntity.ok("Deleted");
         } else {
             return ResponseEntity.status(404).body("Story not found");
         }
     }
 
+    // Viewer ids one page at a time, earliest first; pass nextCursor back as cursor for the next page
     @GetMapping("/{id}/viewers")
-    public ResponseEntity<?> getStoryViewers(@PathVariable String id) {
-        Optional<Story> optionalStory = storyRepo.findById(id);
-        if (optionalStory.isPresent()) {
-            return ResponseEntity.ok(optionalStory.get().getViewedBy());
-        } else {
-            return ResponseEntity.status(404).body("Story not found");
+    public ResponseEntity<?> getStoryViewers(
+            @PathVariable String id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        if (!storyRepo.existsById(id)) return ResponseEntity.status(404).body("Story not found");
+        int pageSize = Math.min(Math.max(limit != null ? limit : defaultPageSize, 1), maxPageSize);
+        PageRequest page = PageRequest.of(0, pageSize, Sort.by("viewedAt", "id"));
+
+        KeysetCursor after;
+        try {
+            after = KeysetCursor.parse(cursor); // <viewedAt millis>_<view id>
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid cursor");
+        }
+        List<StoryView> views = after == null
+                ? storyViewRepo.findByStoryId(id, page)
+                : storyViewRepo.findByStoryIdAfter(id, after.time(), after.id(), page);
+
+        String nextCursor = null;
+        if (views.size() == pageSize) {
+            StoryView last = views.get(views.size() - 1);
+            nextCursor = KeysetCursor.of(last.getViewedAt(), last.getId());
         }
+        return ResponseEntity.ok(new FeedPage<>(views.stream().map(StoryView::getViewerId).toList(), nextCursor));
     }
 }
@@ -1,10 +1,27 @@
 package com.skillshare.backend.api;
 
 
+import com.skillshare.backend.model.GroupMember;
+import com.skillshare.backend.model.GroupPost;
 import com.skillshare.backend.model.StudyGroup;
+import com.skillshare.backend.model.User;
+import com.skillshare.backend.repository.GroupMemberRepository;
 import com.skillshare.backend.repository.StudyGroupRepository;
+import com.skillshare.backend.responses.FeedPage;
+import com.skillshare.backend.responses.KeysetCursor;
+import com.skillshare.backend.services.GroupMembershipService;
+import com.skillshare.backend.services.GroupPostService;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import java.util.Date;
 import java.util.List;
 
 @RestController
@@ -13,11 +30,34 @@ public class StudyGroupController {
 
     @Autowired
     private StudyGroupRepository groupRepo;
+    @Autowired
+    private GroupMemberRepository memberRepo;
+    @Autowired
+    private GroupMembershipService membership;
+    @Autowired
+    private GroupPostService groupPosts;
 
-    // Create a new group
+    @Value("${groups.members.page-size:50}")
+    private int defaultPageSize;
+    @Value("${groups.members.max-page-size:200}")
+    private int maxPageSize;
+    @Value("${groups.posts.page-size:20}")
+    private int postPageSize;
+    @Value("${groups.posts.max-page-size:100}")
+    private int maxPostPageSize;
+    @Value("${groups.posts.max-length:5000}")
+    private int maxPostLength;
+
+    // Create a new group; the creator becomes its owner
     @PostMapping
     public StudyGroup createGroup(@RequestBody StudyGroup group) {
-        return groupRepo.save(group);
+        group.setMemberIds(null); // Members are added through group_members only
+        group.setMemberCount(0);
+        StudyGroup saved = groupRepo.save(group);
+        if (saved.getCreatorId() != null && membership.join(saved.getId(), saved.getCreatorId(), GroupMember.OWNER)) {
+            saved.setMemberCount(1);
+        }
+        return saved;
     }
 
     // Get groups created by a user
@@ -29,7 +69,7 @@ public class StudyGroupController {
     // Get groups where user is a member //
     @GetMapping("/joined/{userId}")
     public List<StudyGroup> getGroupsUserJoined(@PathVariable String userId) {
-        return groupRepo.findByMemberIdsContains(userId);
+        return membership.joinedGroups(userId);
     }
 
     // Get single group by ID
@@ -38,17 +78,129 @@ public class StudyGroupController {
         return groupRepo.findById(id).orElse(null);
     }
 
-    // Update group (name, description, pinned resources)
+    // Update group (name, description, pinned resources); members and counters are not touched
     @PutMapping("/{id}")
     public StudyGroup updateGroup(@PathVariable String id, @RequestBody StudyGroup updatedGroup) {
-        updatedGroup.setId(id);
-        return groupRepo.save(updatedGroup);
+        return groupRepo.updateEditableFields(id, updatedGroup.getName(), updatedGroup.getDescription(),
+                updatedGroup.getPinnedResources());
     }
 
     // Delete a group
     @DeleteMapping("/{id}")
     public void deleteGroup(@PathVariable String id) {
         groupRepo.deleteById(id);
+        membership.deleteMembers(id);
+        groupPosts.deleteGroupPosts(id);
+    }
+
+    /**
+     * A group's discussion, newest first. The first page usually comes from memory.
+     * Pass the returned nextCursor back as cursor to get the following page.
+     */
+    @GetMapping("/{id}/posts")
+    public ResponseEntity<?> getGroupPosts(
+            @PathVariable String id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        int pageSize = Math.min(Math.max(limit != null ? limit : postPageSize, 1), maxPostPageSize);
+        KeysetCursor before;
+        ObjectId beforeId;
+        try {
+            before = KeysetCursor.parse(cursor); // {createdAt millis}_{id} of the last post already seen
+            beforeId = before != null ? before.objectId() : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid cursor");
+        }
+        return ResponseEntity.ok(groupPosts.page(id, before != null ? before.time() : null, beforeId, pageSize));
+    }
+
+    // Post to a group's discussion as the signed-in user; only members may post
+    @PostMapping("/{id}/posts")
+    public ResponseEntity<?> addGroupPost(@PathVariable String id, @RequestBody GroupPost post,
+                                          @AuthenticationPrincipal User user) {
+        if (user == null || user.getId() == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Unauthorized");
+        }
+        if (post.getContent() == null || post.getContent().isBlank()) {
+            return ResponseEntity.badRequest().body("Content is required");
+        }
+        if (post.getContent().length() > maxPostLength) {
+            return ResponseEntity.badRequest().body("Content is too long");
+        }
+        if (!membership.isMember(id, user.getId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Only group members can post");
+        }
+        post.setId(null);
+        post.setUserId(user.getId()); // The author is whoever JwtFilter authenticated, never the request body
+        post.setGroupId(id);
+        post.setContent(post.getContent().trim());
+        post.setCreatedAt(new Date());
+        return ResponseEntity.status(HttpStatus.CREATED).body(groupPosts.publish(post));
+    }
+
+    /**
+     * Members of a group ordered by role, then join order; pass role to list one role only.
+     * Pass the returned nextCursor back as cursor to get the following page.
+     */
+    @GetMapping("/{id}/members")
+    public ResponseEntity<?> getMembers(
+            @PathVariable String id,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        int pageSize = Math.min(Math.max(limit != null ? limit : defaultPageSize, 1), maxPageSize);
+        Pageable page = PageRequest.of(0, pageSize, Sort.by(Sort.Direction.ASC, "role", "_id"));
+
+        List<GroupMember> items;
+        if (cursor == null || cursor.isEmpty()) {
+            items = role != null ? memberRepo.findByGroupIdAndRole(id, role, page) : memberRepo.findByGroupId(id, page);
+        } else {
+            // Cursor is "{role}_{id}" of the last member already seen
+            int sep = cursor.lastIndexOf('_');
+            if (sep <= 0 || !ObjectId.isValid(cursor.substring(sep + 1))) {
+                return ResponseEntity.badRequest().body("Invalid cursor");
+            }
+            String afterRole = cursor.substring(0, sep);
+            ObjectId afterId = new ObjectId(cursor.substring(sep + 1));
+            items = role != null
+                    ? memberRepo.findByGroupIdAndRoleAfter(id, role, afterId, page)
+                    : memberRepo.findByGroupIdAfter(id, afterRole, afterId, page);
+        }
+
+        String nextCursor = null;
+        if (items.size() == pageSize) {
+            GroupMember last = items.get(items.size() - 1);
+            nextCursor = last.getRole() + "_" + last.getId();
+        }
+        return ResponseEntity.ok(new FeedPage<>(items, nextCursor));
+    }
+
+    // A user's membership of a group, or 404 if they are not a member
+    @GetMapping("/{id}/members/{userId}")
+    public ResponseEntity<?> getMember(@PathVariable String id, @PathVariable String userId) {
+        return memberRepo.findByUserIdAndGroupId(userId, id)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body("Not a member"));
+    }
+
+    // Join a group; joining twice is a no-op
+    @PostMapping("/{id}/members/{userId}")
+    public ResponseEntity<?> joinGroup(@PathVariable String id, @PathVariable String userId) {
+        if (!groupRepo.existsById(id)) return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Group not found");
+        membership.join(id, userId, GroupMember.MEMBER);
+        return ResponseEntity.ok(groupRepo.findById(id).orElse(null));
+    }
+
+    // Leave a group; the owner cannot leave their own group
+    @DeleteMapping("/{id}/members/{userId}")
+    public ResponseEntity<?> leaveGroup(@PathVariable String id, @PathVariable String userId) {
+        StudyGroup group = groupRepo.findById(id).orElse(null);
+        if (group == null) return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Group not found");
+        if (userId.equals(group.getCreatorId())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("The owner cannot leave the group");
+        }
+        membership.leave(id, userId);
+        return ResponseEntity.ok(groupRepo.findById(id).orElse(null));
     }
 
     // Get all groups (public)//
@@ -58,4 +210,3 @@ public List<StudyGroup> getAllGroups() {
 }
 
 }
-
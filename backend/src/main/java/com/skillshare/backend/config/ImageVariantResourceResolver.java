@@ -0,0 +1,157 @@
+package com.skillshare.backend.config;
+
+import com.skillshare.backend.services.ImageVariantService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.resource.AbstractResourceResolver;
+import org.springframework.web.servlet.resource.HttpResource;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.nio.channels.ReadableByteChannel;
+import java.util.List;
+
+/**
+ * Serves /media/{name}?w={width} from the closest generated variant at least that wide,
+ * falling back to the original file until the variant exists.
+ * The Cache-Control of these responses depends on which file was served, so it is attached here.
+ */
+public class ImageVariantResourceResolver extends AbstractResourceResolver {
+
+    static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    static final String REVALIDATE = "no-cache";
+
+    private final ImageVariantService imageVariants;
+
+    public ImageVariantResourceResolver(ImageVariantService imageVariants) {
+        this.imageVariants = imageVariants;
+    }
+
+    @Override
+    protected Resource resolveResourceInternal(HttpServletRequest request, String requestPath,
+                                               List<? extends Resource> locations, ResourceResolverChain chain) {
+        Integer width = requestedWidth(request);
+        if (width == null || requestPath.contains("/")) return chain.resolveResource(request, requestPath, locations);
+
+        // Never serve a smaller variant than asked for; use the original instead
+        int candidate = imageVariants.pickWidth(width);
+        if (candidate > 0) {
+            Resource variant = chain.resolveResource(request,
+                    "variants/" + ImageVariantService.variantName(requestPath, candidate), locations);
+            if (variant != null) return new CacheControlledResource(variant, IMMUTABLE);
+        }
+        Resource original = chain.resolveResource(request, requestPath, locations);
+        if (original == null) return null;
+        // An original standing in for a variant still to come is revalidated; if none will ever come it is final
+        return new CacheControlledResource(original,
+                imageVariants.variantNeverExists(requestPath, width) ? IMMUTABLE : REVALIDATE);
+    }
+
+    @Override
+    protected String resolveUrlPathInternal(String resourceUrlPath, List<? extends Resource> locations,
+                                            ResourceResolverChain chain) {
+        return chain.resolveUrlPath(resourceUrlPath, locations);
+    }
+
+    static Integer requestedWidth(HttpServletRequest request) {
+        if (request == null) return null;
+        String w = request.getParameter("w");
+        if (w == null) return null;
+        try {
+            int width = Integer.parseInt(w);
+            return width > 0 ? width : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // A resolved file plus the Cache-Control that ResourceHttpRequestHandler copies onto the response
+    private static final class CacheControlledResource extends AbstractResource implements HttpResource {
+
+        private final Resource resource;
+        private final String cacheControl;
+
+        CacheControlledResource(Resource resource, String cacheControl) {
+            this.resource = resource;
+            this.cacheControl = cacheControl;
+        }
+
+        @Override
+        public HttpHeaders getResponseHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setCacheControl(cacheControl);
+            return headers;
+        }
+
+        @Override
+        public boolean exists() {
+            return resource.exists();
+        }
+
+        @Override
+        public boolean isReadable() {
+            return resource.isReadable();
+        }
+
+        @Override
+        public boolean isFile() {
+            return resource.isFile();
+        }
+
+        @Override
+        public URL getURL() throws IOException {
+            return resource.getURL();
+        }
+
+        @Override
+        public URI getURI() throws IOException {
+            return resource.getURI();
+        }
+
+        @Override
+        public File getFile() throws IOException {
+            return resource.getFile();
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return resource.getInputStream();
+        }
+
+        @Override
+        public ReadableByteChannel readableChannel() throws IOException {
+            return resource.readableChannel();
+        }
+
+        @Override
+        public long contentLength() throws IOException {
+            return resource.contentLength();
+        }
+
+        @Override
+        public long lastModified() throws IOException {
+            return resource.lastModified();
+        }
+
+        @Override
+        public Resource createRelative(String relativePath) throws IOException {
+            return resource.createRelative(relativePath);
+        }
+
+        @Override
+        public String getFilename() {
+            return resource.getFilename();
+        }
+
+        @Override
+        public String getDescription() {
+            return resource.getDescription();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.skillshare.backend.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * HTTP caching for static media, plus zero-copy transfer of large media files.
+ * /media/ files are content-addressed and never change, so they are cached as immutable; for ?w= requests
+ * ImageVariantResourceResolver sets Cache-Control once it knows whether a variant or the original was served.
+ * /images/ and /uploads/ may still hold files overwritten in place, so clients revalidate them by ETag.
+ * Full GETs of large /media/ files are handed to Tomcat's sendfile; range requests and small files
+ * are left to the Spring resource handler.
+ */
+@Component
+public class MediaCacheFilter extends OncePerRequestFilter {
+
+    @Value("${media.sendfile-min-bytes:262144}")
+    private long sendfileMinBytes;
+
+    private final Path mediaDir = Paths.get(System.getProperty("user.dir"), "media").normalize();
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getServletPath();
+        return !(path.startsWith("/media/") || path.startsWith("/images/") || path.startsWith("/uploads/"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getServletPath();
+        if (!path.startsWith("/media/")) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, ImageVariantResourceResolver.REVALIDATE);
+            chain.doFilter(request, response);
+            return;
+        }
+
+        if (ImageVariantResourceResolver.requestedWidth(request) != null) {
+            // Cache-Control comes with the resolved file; a 304 carries none, so the client keeps what it stored
+            chain.doFilter(request, response);
+            return;
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, ImageVariantResourceResolver.IMMUTABLE);
+        if (sendfile(request, response, path.substring("/media/".length()))) return;
+        chain.doFilter(request, response);
+    }
+
+    // Lets Tomcat write the file straight from the page cache to the socket
+    private boolean sendfile(HttpServletRequest request, HttpServletResponse response, String name) throws IOException {
+        if (!"GET".equals(request.getMethod()) || request.getHeader(HttpHeaders.RANGE) != null) return false;
+        if (!Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) return false;
+
+        Path file = mediaDir.resolve(name).normalize();
+        if (!file.startsWith(mediaDir) || !Files.isRegularFile(file)) return false;
+        BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        if (attrs.size() < sendfileMinBytes) return false;
+
+        String etag = WebConfig.contentHashEtag(file.getFileName().toString());
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.trim().equals("*"))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return true;
+        }
+
+        String contentType = request.getServletContext().getMimeType(file.getFileName().toString());
+        response.setContentType(contentType != null ? contentType : "application/octet-stream");
+        response.setContentLengthLong(attrs.size());
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, attrs.lastModifiedTime().toMillis());
+        request.setAttribute("org.apache.tomcat.sendfile.filename", file.toAbsolutePath().toString());
+        request.setAttribute("org.apache.tomcat.sendfile.start", 0L);
+        request.setAttribute("org.apache.tomcat.sendfile.end", attrs.size());
+        return true;
+    }
+}
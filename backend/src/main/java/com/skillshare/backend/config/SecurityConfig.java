@@ -1,19 +1,23 @@
 package com.skillshare.backend.config;
 
 import com.skillshare.backend.security.JwtFilter;
+import com.skillshare.backend.security.RateLimitFilter;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.List;
 
 @Configuration
@@ -22,10 +26,12 @@ public class SecurityConfig {
     @Autowired
     private JwtFilter jwtFilter;
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
+    // Bearer token Prometheus sends to scrape metrics; when unset, no one can read them over HTTP
+    @Value("${management.scrape-token:}")
+    private String scrapeToken;
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
@@ -44,8 +50,12 @@ public class SecurityConfig {
                     "/oauth2/**",
                     "/images/**",
                     "/uploads/**",
-                    "/media/**" // ✅ Allow public access to media files
+                    "/media/**", // ✅ Allow public access to media files
+                    "/actuator/health"
                 ).permitAll()
+                // Metrics and other actuator endpoints need the scrape token, not a user login
+                .requestMatchers("/actuator/**").access((authentication, context) ->
+                    new AuthorizationDecision(hasScrapeToken(context.getRequest().getHeader("Authorization"))))
                 .anyRequest().authenticated()
             )
             .oauth2Login(oauth -> oauth
@@ -54,10 +64,27 @@ public class SecurityConfig {
 
         // ✅ Attach JwtFilter
         http.addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
+        // Rate limiting needs the authenticated user, so it runs right after JwtFilter
+        http.addFilterAfter(rateLimitFilter, JwtFilter.class);
 
         return http.build();
     }
 
+    // Constant-time comparison so the token cannot be guessed from response timing
+    private boolean hasScrapeToken(String header) {
+        if (scrapeToken.isEmpty() || header == null || !header.startsWith("Bearer ")) return false;
+        return MessageDigest.isEqual(header.substring(7).getBytes(StandardCharsets.UTF_8),
+                scrapeToken.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Only run the rate limiter inside the security chain, not a second time as a plain servlet filter
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter filter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration config = new CorsConfiguration();
@@ -0,0 +1,39 @@
+package com.skillshare.backend.config;
+
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread factories for the app's own background pools.
+ * Pools that block on Mongo or disk I/O get virtual threads when spring.threads.virtual.enabled is set
+ * and the JVM supports them (Java 21+); otherwise they keep named daemon platform threads.
+ */
+public final class Threads {
+
+    private Threads() {
+    }
+
+    public static boolean virtualThreadsSupported() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    public static ThreadFactory ioThreads(String name, boolean virtual) {
+        if (virtual && virtualThreadsSupported()) {
+            return new VirtualThreadTaskExecutor(name + "-").getVirtualThreadFactory();
+        }
+        return platformThreads(name, Thread.NORM_PRIORITY);
+    }
+
+    // For CPU-bound pools, which gain nothing from virtual threads
+    public static ThreadFactory platformThreads(String name, int priority) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(priority);
+            return thread;
+        };
+    }
+}
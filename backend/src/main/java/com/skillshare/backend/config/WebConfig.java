@@ -1,11 +1,19 @@
 package com.skillshare.backend.config;
 
+import com.skillshare.backend.services.ImageVariantService;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
 import org.springframework.web.servlet.config.annotation.*;
 
+import java.io.IOException;
+
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    @Autowired
+    private ImageVariantService imageVariants;
+
     // ✅ Allow frontend (React app) to communicate with backend
     @Override
     public void addCorsMappings(CorsRegistry registry) {
@@ -17,15 +25,41 @@ public class WebConfig implements WebMvcConfigurer {
     }
 
     // ✅ Serve static files from custom folders like /media/, /images/, and /uploads/
+    // Cache-Control and zero-copy transfer of large files are handled by MediaCacheFilter
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        // ?w= picks a resized variant; the chain cache is off because it ignores query parameters
         registry.addResourceHandler("/media/**")
-                .addResourceLocations("file:" + System.getProperty("user.dir") + "/media/");
+                .addResourceLocations("file:" + System.getProperty("user.dir") + "/media/")
+                .setEtagGenerator(WebConfig::contentHashEtag)
+                .resourceChain(false)
+                .addResolver(new ImageVariantResourceResolver(imageVariants));
 
         registry.addResourceHandler("/images/**")
-                .addResourceLocations("file:" + System.getProperty("user.dir") + "/images/");
+                .addResourceLocations("file:" + System.getProperty("user.dir") + "/images/")
+                .setEtagGenerator(WebConfig::fileVersionEtag);
 
         registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:" + System.getProperty("user.dir") + "/uploads/");
+                .addResourceLocations("file:" + System.getProperty("user.dir") + "/uploads/")
+                .setEtagGenerator(WebConfig::fileVersionEtag);
+    }
+
+    // Media files are named by their content hash, so the name is a strong validator
+    static String contentHashEtag(Resource resource) {
+        return resource.getFilename() == null ? null : contentHashEtag(resource.getFilename());
+    }
+
+    static String contentHashEtag(String filename) {
+        int dot = filename.lastIndexOf('.');
+        return "\"" + (dot < 0 ? filename : filename.substring(0, dot)) + "\"";
+    }
+
+    // Files that may be overwritten in place get a validator from their size and modification time
+    static String fileVersionEtag(Resource resource) {
+        try {
+            return "\"" + Long.toHexString(resource.lastModified()) + "-" + Long.toHexString(resource.contentLength()) + "\"";
+        } catch (IOException e) {
+            return null;
+        }
     }
 }
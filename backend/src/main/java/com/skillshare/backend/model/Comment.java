@@ -1,12 +1,25 @@
 package com.skillshare.backend.model;
 
 import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
 import java.util.Date;
 
+/**
+ * A comment on a post, stored in its own "comments" collection.
+ * Posts keep only a commentCount; pages of comments are read by (postId, commentedAt).
+ */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@Document(collection = "comments")
+@CompoundIndex(name = "post_comments_idx", def = "{'postId': 1, 'commentedAt': 1, '_id': 1}") // Serves comment pages
 public class Comment {
+  @Id
+  private String id;
+  private String postId;
   private String userId;
   private String userName;
   private String commentText;
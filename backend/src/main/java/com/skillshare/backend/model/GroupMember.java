@@ -3,14 +3,27 @@ package com.skillshare.backend.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.util.Date;
+
 @Data
 @Document(collection = "group_members")
+@CompoundIndexes({
+        @CompoundIndex(name = "group_member_uniq", def = "{'userId': 1, 'groupId': 1}", unique = true), // Joined groups, one row per pair
+        @CompoundIndex(name = "group_members_role_idx", def = "{'groupId': 1, 'role': 1, '_id': 1}")     // Member pages
+})
 public class GroupMember {
+    public static final String OWNER = "owner";
+    public static final String MODERATOR = "moderator";
+    public static final String MEMBER = "member";
+
     @Id
     private String id;
     private String groupId;
     private String userId;
-    private String role; // "member" or "moderator"
+    private String role; // "owner", "moderator" or "member"
+    private Date joinedAt;
 }
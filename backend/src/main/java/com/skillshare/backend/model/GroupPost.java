@@ -3,11 +3,13 @@ package com.skillshare.backend.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.util.Date;
 
 @Data
 @Document(collection = "group_posts")
+@CompoundIndex(name = "group_posts_feed_idx", def = "{'groupId': 1, 'createdAt': -1, '_id': -1}") // Newest-first pages per group
 public class GroupPost {
     @Id
     private String id;
@@ -1,7 +1,10 @@
 package com.skillshare.backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
@@ -11,6 +14,11 @@ import java.util.List;
 
 @Data
 @Document(collection = "learning_plans")
+@CompoundIndexes({
+        @CompoundIndex(name = "plan_tag_idx", def = "{'normalizedTags': 1, '_id': -1}"),
+        @CompoundIndex(name = "plan_catalog_recent_idx", def = "{'isPublic': 1, '_id': -1}"),
+        @CompoundIndex(name = "plan_catalog_popular_idx", def = "{'isPublic': 1, 'viewCount': -1, '_id': -1}")
+})
 public class LearningPlan {
     @Id
     private String id;
@@ -23,4 +31,15 @@ public class LearningPlan {
     private List<String> tags;
     private boolean isPublic;
     private List<Milestone> milestones;
+    private int milestoneCount;       // Kept in step with milestones by LearningStatsService
+    private int completedMilestones;
+    private long viewCount; // Views of a public plan by users other than its owner
+
+    // Set once the plan is counted in its owner's learning_stats; see LearningStatsService
+    @JsonIgnore
+    private boolean statsCounted;
+
+    // Trimmed, lowercase, de-duplicated copy of tags; filled by LearningPlanTagsListener on save
+    @JsonIgnore
+    private List<String> normalizedTags;
 }
@@ -0,0 +1,29 @@
+package com.skillshare.backend.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Running milestone totals for one user across all of their learning plans. The id is the user id.
+ * Days are UTC dates formatted as yyyy-MM-dd, so they sort as strings.
+ * Writes upsert it, so it may exist with only some plans counted until built is set.
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "learning_stats")
+public class LearningStats {
+    @Id
+    private String id;
+    private int planCount;
+    private int totalMilestones;
+    private int completedMilestones;
+    private Map<String, Integer> pendingByDay = new HashMap<>(); // Open milestones per target day
+    private String lastCompletionDay;
+    private int currentStreak;  // Consecutive days with a completion, ending at lastCompletionDay
+    private int longestStreak;
+    private boolean built;      // Every plan of the user has been counted; until then the first read builds it
+}
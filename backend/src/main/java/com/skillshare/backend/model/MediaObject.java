@@ -0,0 +1,22 @@
+package com.skillshare.backend.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * A stored media file, named by the SHA-256 of its content.
+ * refCount is the number of posts, stories and profiles that point at it;
+ * the file is deleted when it drops to zero.
+ */
+@Data
+@Document(collection = "media")
+public class MediaObject {
+    @Id
+    private String id; // File name: <sha256 hex>.<ext>
+    private long size;
+    private long refCount;
+    private Date createdAt = new Date();
+}
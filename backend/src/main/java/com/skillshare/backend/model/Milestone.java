@@ -8,4 +8,5 @@ public class Milestone {
     private String description;
     private Date targetDate;
     private boolean completed;
+    private Date completedAt; // Stamped by the server when the milestone is first seen completed
 }
@@ -0,0 +1,29 @@
+package com.skillshare.backend.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * One viewer of one learning plan. The id is "{planId}:{viewerId}", so a plan's viewCount only moves
+ * the first time a user views it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "plan_views")
+public class PlanView {
+    @Id
+    private String id;
+    @Indexed(name = "plan_views_plan_idx") // Removing a deleted plan's views
+    private String planId;
+    private String viewerId;
+    private Date viewedAt;
+
+    public static String idOf(String planId, String viewerId) {
+        return planId + ":" + viewerId;
+    }
+}
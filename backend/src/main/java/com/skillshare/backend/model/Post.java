@@ -2,6 +2,7 @@ package com.skillshare.backend.model;
 
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
@@ -17,6 +18,7 @@ import java.util.Map;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "posts")
+@CompoundIndex(name = "feed_cursor_idx", def = "{'createdAt': -1, '_id': -1}") // Serves the keyset feed
 public class Post {
     @Id
     private String id; // Unique identifier for the post
@@ -35,5 +37,7 @@ public class Post {
 
     private Map<String, String> reactionUsers = new HashMap<>(); // userId → userName
 
-    private List<Comment> comments; // List of comments
+    private int commentCount; // Number of documents in the comments collection for this post
+
+    private List<Comment> comments; // Legacy embedded comments, moved out by CommentMigrationService
 }
@@ -4,11 +4,11 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
-import java.util.ArrayList;
 import java.util.Date;
-import java.util.List;
 
 @Data
 @NoArgsConstructor
@@ -24,11 +24,14 @@ public class Story {
     private String userProfilePic;
 
     private String text;
+    @Indexed(sparse = true) // Lets the orphan sweep check file references
     private String mediaUrl;
 
+    @Indexed // Range queries for expiry
     private Date createdAt = new Date();
 
-    private List<String> viewedBy = new ArrayList<>();
+    @Transient // Filled in from story_views when stories are listed; views are not stored on the story
+    private long viewCount;
 }
 
 
@@ -0,0 +1,30 @@
+package com.skillshare.backend.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * One viewer of one story. The id is "{storyId}:{viewerId}", so recording a view twice is a no-op.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "story_views")
+@CompoundIndex(name = "story_viewers_idx", def = "{'storyId': 1, 'viewedAt': 1, '_id': 1}") // Counts and viewer pages
+public class StoryView {
+    @Id
+    private String id;
+    private String storyId;
+    private String viewerId;
+    @Indexed(name = "story_views_ttl_idx", expireAfter = "2d") // Stories expire after a day; their views soon after
+    private Date viewedAt;
+
+    public static String idOf(String storyId, String viewerId) {
+        return storyId + ":" + viewerId;
+    }
+}
@@ -16,7 +16,8 @@ public class StudyGroup {
     private String name;
     private String description;
     private String creatorId; // Group Owner
-    private List<String> memberIds;
+    private List<String> memberIds; // Legacy; members now live in group_members
+    private int memberCount;        // Kept by GroupMembershipService on join and leave
     private List<String> pinnedResources; // (URLs, PDFs, Videos)
     private Date createdAt = new Date();
 }
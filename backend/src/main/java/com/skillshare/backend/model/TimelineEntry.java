@@ -0,0 +1,33 @@
+package com.skillshare.backend.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * One post id in a precomputed timeline bucket.
+ * ownerKey is "u:{userId}" for a user's own timeline or "c:{category}" for a shared category bucket.
+ * createdAt is the post's creation time, so a bucket reads newest first straight from the index.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "timeline_entries")
+@CompoundIndexes({
+        @CompoundIndex(name = "timeline_read_idx", def = "{'ownerKey': 1, 'createdAt': -1, 'postId': -1}"),
+        @CompoundIndex(name = "timeline_entry_uniq", def = "{'ownerKey': 1, 'postId': 1}", unique = true)
+})
+public class TimelineEntry {
+    @Id
+    private String id;
+    private String ownerKey;
+    private String postId;
+    private String authorId;
+    @Indexed(name = "timeline_ttl_idx", expireAfter = "30d") // Old entries age out; feeds rarely page that far back
+    private Date createdAt;
+}
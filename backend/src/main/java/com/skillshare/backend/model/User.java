@@ -1,8 +1,10 @@
 // --- User.java ---
 package com.skillshare.backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.List;
@@ -20,7 +22,12 @@ public class User {
     private String password;
     private String profilePic;
     private String coverPic;
+    @Indexed // Finds the audience of a category when fanning out new posts
     private List<String> categories;
     private String status = "active";
     private int tokenVersion = 0;
+
+    @JsonIgnore
+    @Indexed // Lowercase name/lastName/email keys for prefix search, kept up to date by UserSearchKeysListener
+    private List<String> searchKeys;
 }
@@ -0,0 +1,24 @@
+package com.skillshare.backend.repository;
+
+import com.skillshare.backend.model.Comment;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface CommentRepository extends MongoRepository<Comment, String> {
+
+    // First page of a post's comments; sort order comes from the Pageable
+    List<Comment> findByPostId(String postId, Pageable pageable);
+
+    // Comments after a (commentedAt, id) keyset cursor, oldest first
+    @Query("{ 'postId': ?0, $or: [ { 'commentedAt': { $gt: ?1 } }, { 'commentedAt': ?1, '_id': { $gt: ?2 } } ] }")
+    List<Comment> findByPostIdAfter(String postId, Date afterCommentedAt, ObjectId afterId, Pageable pageable);
+
+    void deleteByPostId(String postId);
+}
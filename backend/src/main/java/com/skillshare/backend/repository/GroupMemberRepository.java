@@ -0,0 +1,33 @@
+package com.skillshare.backend.repository;
+
+import com.skillshare.backend.model.GroupMember;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface GroupMemberRepository extends MongoRepository<GroupMember, String> {
+
+    Optional<GroupMember> findByUserIdAndGroupId(String userId, String groupId);
+
+    List<GroupMember> findByUserId(String userId);
+
+    // First page of a group's members; sort order comes from the Pageable
+    List<GroupMember> findByGroupId(String groupId, Pageable pageable);
+
+    List<GroupMember> findByGroupIdAndRole(String groupId, String role, Pageable pageable);
+
+    // Members after a (role, id) keyset cursor
+    @Query("{ 'groupId': ?0, $or: [ { 'role': { $gt: ?1 } }, { 'role': ?1, '_id': { $gt: ?2 } } ] }")
+    List<GroupMember> findByGroupIdAfter(String groupId, String afterRole, ObjectId afterId, Pageable pageable);
+
+    @Query("{ 'groupId': ?0, 'role': ?1, '_id': { $gt: ?2 } }")
+    List<GroupMember> findByGroupIdAndRoleAfter(String groupId, String role, ObjectId afterId, Pageable pageable);
+
+    void deleteByGroupId(String groupId);
+}
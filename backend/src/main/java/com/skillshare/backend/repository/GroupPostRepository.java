@@ -0,0 +1,24 @@
+package com.skillshare.backend.repository;
+
+import com.skillshare.backend.model.GroupPost;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface GroupPostRepository extends MongoRepository<GroupPost, String> {
+
+    // First page of a group's discussion; sort order comes from the Pageable
+    List<GroupPost> findByGroupId(String groupId, Pageable pageable);
+
+    // Posts before a (createdAt, id) keyset cursor, newest first
+    @Query("{ 'groupId': ?0, $or: [ { 'createdAt': { $lt: ?1 } }, { 'createdAt': ?1, '_id': { $lt: ?2 } } ] }")
+    List<GroupPost> findByGroupIdBefore(String groupId, Date beforeCreatedAt, ObjectId beforeId, Pageable pageable);
+
+    void deleteByGroupId(String groupId);
+}
@@ -1,11 +1,29 @@
 package com.skillshare.backend.repository;
 
 import com.skillshare.backend.model.LearningPlan;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import java.util.List;
 
-public interface LearningPlanRepository extends MongoRepository<LearningPlan, String> {
+public interface LearningPlanRepository extends MongoRepository<LearningPlan, String>, LearningPlanRepositoryCustom {
     List<LearningPlan> findByUserId(String userId);
     List<LearningPlan> findByIsPublicTrue();
-    List<LearningPlan> findByTagsContainingIgnoreCase(String tag);
+
+    // First page of plans with a normalized tag; sort order comes from the Pageable
+    List<LearningPlan> findByNormalizedTags(String tag, Pageable pageable);
+
+    // Plans with a normalized tag older than an id cursor, newest first
+    @Query(value = "{ 'normalizedTags': ?0, '_id': { $lt: ?1 } }", sort = "{ '_id': -1 }")
+    List<LearningPlan> findByNormalizedTagsBefore(String tag, ObjectId beforeId, Pageable pageable);
+
+    // Same as findByNormalizedTags, plus plans whose normalizedTags are not backfilled yet, matched on tags by pattern
+    @Query(value = "{ $or: [ { 'normalizedTags': ?0 }, { 'normalizedTags': { $exists: false }, 'tags': { $regex: ?1, $options: 'i' } } ] }",
+            sort = "{ '_id': -1 }")
+    List<LearningPlan> findByTagIncludingUnfilled(String tag, String tagPattern, Pageable pageable);
+
+    @Query(value = "{ '_id': { $lt: ?2 }, $or: [ { 'normalizedTags': ?0 }, { 'normalizedTags': { $exists: false }, 'tags': { $regex: ?1, $options: 'i' } } ] }",
+            sort = "{ '_id': -1 }")
+    List<LearningPlan> findByTagIncludingUnfilledBefore(String tag, String tagPattern, ObjectId beforeId, Pageable pageable);
 }
@@ -0,0 +1,46 @@
+package com.skillshare.backend.repository;
+
+import com.skillshare.backend.model.LearningPlan;
+import com.skillshare.backend.responses.PlanSummary;
+
+import java.util.List;
+
+/**
+ * Custom LearningPlanRepository fragment for queries that need MongoTemplate.
+ */
+public interface LearningPlanRepositoryCustom {
+
+    /**
+     * One page of public plan summaries, newest first.
+     *
+     * @param beforeId Only plans with a smaller id are returned; null for the first page.
+     */
+    List<PlanSummary> findPublicByRecency(String beforeId, int limit);
+
+    /**
+     * One page of public plan summaries, most viewed first, newest first among equal counts.
+     *
+     * @param beforeViewCount View count of the last plan on the previous page; null for the first page.
+     * @param beforeId        Id of the last plan on the previous page.
+     */
+    List<PlanSummary> findPublicByPopularity(Long beforeViewCount, String beforeId, int limit);
+
+    /**
+     * Sets viewCount to zero on plans saved before the field existed, so popularity sorting and cursors see a number.
+     */
+    void initializeViewCounts();
+
+    /**
+     * Records a view as an idempotent upsert in plan_views and counts it on the plan only the first time.
+     *
+     * @return true if this is the viewer's first view of the plan.
+     */
+    boolean recordView(String planId, String viewerId);
+
+    /**
+     * Appends a resource with $push, leaving the rest of the plan as it is.
+     *
+     * @return The updated plan, or null if it does not exist.
+     */
+    LearningPlan addResource(String planId, String resource);
+}
@@ -0,0 +1,104 @@
+package com.skillshare.backend.repository;
+
+import com.skillshare.backend.model.LearningPlan;
+import com.skillshare.backend.model.PlanView;
+import com.skillshare.backend.responses.PlanSummary;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * MongoTemplate-backed implementation of LearningPlanRepositoryCustom.
+ * Picked up by Spring Data through the "Impl" suffix.
+ */
+public class LearningPlanRepositoryImpl implements LearningPlanRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public List<PlanSummary> findPublicByRecency(String beforeId, int limit) {
+        Criteria criteria = Criteria.where("isPublic").is(true);
+        if (beforeId != null) criteria = criteria.and("_id").lt(new ObjectId(beforeId));
+        return findSummaries(criteria, Sort.by(Sort.Direction.DESC, "_id"), limit);
+    }
+
+    @Override
+    public List<PlanSummary> findPublicByPopularity(Long beforeViewCount, String beforeId, int limit) {
+        Criteria criteria = Criteria.where("isPublic").is(true);
+        if (beforeViewCount != null) {
+            criteria = criteria.orOperator(Criteria.where("viewCount").lt(beforeViewCount),
+                    Criteria.where("viewCount").is(beforeViewCount).and("_id").lt(new ObjectId(beforeId)));
+        }
+        return findSummaries(criteria, Sort.by(Sort.Direction.DESC, "viewCount", "_id"), limit);
+    }
+
+    @Override
+    public void initializeViewCounts() {
+        mongoTemplate.updateMulti(Query.query(Criteria.where("viewCount").exists(false)),
+                new Update().set("viewCount", 0L), LearningPlan.class);
+    }
+
+    @Override
+    public boolean recordView(String planId, String viewerId) {
+        Update view = new Update()
+                .setOnInsert("planId", planId)
+                .setOnInsert("viewerId", viewerId)
+                .setOnInsert("viewedAt", new Date());
+        Query byId = Query.query(Criteria.where("_id").is(PlanView.idOf(planId, viewerId)));
+        if (mongoTemplate.upsert(byId, view, PlanView.class).getUpsertedId() == null) return false;
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(planId)),
+                new Update().inc("viewCount", 1), LearningPlan.class);
+        return true;
+    }
+
+    @Override
+    public LearningPlan addResource(String planId, String resource) {
+        return mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(planId)),
+                new Update().push("resources", resource), FindAndModifyOptions.options().returnNew(true), LearningPlan.class);
+    }
+
+    // Progress comes from the plan's milestone counters, counted in the database for plans not yet backfilled
+    private List<PlanSummary> findSummaries(Criteria criteria, Sort sort, int limit) {
+        Document milestones = new Document("$ifNull", List.of("$milestones", List.of()));
+        Document total = new Document("$ifNull", List.of("$milestoneCount", new Document("$size", milestones)));
+        Document completed = new Document("$ifNull", List.of("$completedMilestones",
+                new Document("$size", new Document("$filter", new Document("input", milestones)
+                        .append("as", "m")
+                        .append("cond", new Document("$eq", List.of("$$m.completed", true)))))));
+        List<AggregationOperation> stages = List.of(
+                Aggregation.match(criteria),
+                Aggregation.sort(sort),
+                Aggregation.limit(limit),
+                context -> new Document("$project", new Document("_id", 0)
+                        .append("id", new Document("$toString", "$_id"))
+                        .append("userId", 1)
+                        .append("title", 1)
+                        .append("goal", 1)
+                        .append("tags", 1)
+                        .append("startDate", 1)
+                        .append("endDate", 1)
+                        .append("milestoneCount", total)
+                        .append("completedMilestones", completed)
+                        .append("viewCount", 1)),
+                context -> new Document("$addFields", new Document("percentComplete", new Document("$cond", List.of(
+                        new Document("$gt", List.of("$milestoneCount", 0)),
+                        new Document("$toInt", new Document("$round", List.of(new Document("$multiply", List.of(100,
+                                new Document("$divide", List.of("$completedMilestones", "$milestoneCount")))), 0))),
+                        0)))));
+
+        return mongoTemplate.aggregate(Aggregation.newAggregation(stages), "learning_plans", PlanSummary.class)
+                .getMappedResults();
+    }
+}
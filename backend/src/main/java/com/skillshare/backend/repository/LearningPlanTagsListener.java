@@ -0,0 +1,41 @@
+package com.skillshare.backend.repository;
+
+import com.skillshare.backend.model.LearningPlan;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Recomputes LearningPlan.normalizedTags on every save so tag lookups can use an exact index match.
+ */
+@Component
+public class LearningPlanTagsListener extends AbstractMongoEventListener<LearningPlan> {
+
+    @Override
+    public void onBeforeConvert(BeforeConvertEvent<LearningPlan> event) {
+        LearningPlan plan = event.getSource();
+        plan.setNormalizedTags(normalize(plan.getTags()));
+    }
+
+    // Trimmed and lowercase, blanks dropped, each tag once in its original order
+    public static List<String> normalize(Collection<String> tags) {
+        if (tags == null) return new ArrayList<>();
+        Set<String> normalized = new LinkedHashSet<>();
+        for (String tag : tags) {
+            String value = normalize(tag);
+            if (!value.isEmpty()) normalized.add(value);
+        }
+        return new ArrayList<>(normalized);
+    }
+
+    public static String normalize(String tag) {
+        return tag == null ? "" : tag.trim().toLowerCase(Locale.ROOT);
+    }
+}
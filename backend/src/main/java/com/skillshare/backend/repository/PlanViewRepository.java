@@ -0,0 +1,11 @@
+package com.skillshare.backend.repository;
+
+import com.skillshare.backend.model.PlanView;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PlanViewRepository extends MongoRepository<PlanView, String> {
+
+    void deleteByPlanId(String planId);
+}
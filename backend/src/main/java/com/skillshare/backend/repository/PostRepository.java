@@ -6,9 +6,10 @@ import java.util.List;
 
 /**
  * Repository interface for managing Post entities in MongoDB.
- * Extends MongoRepository to provide CRUD operations and custom query methods.
+ * Extends MongoRepository to provide CRUD operations and custom query methods,
+ * and PostRepositoryCustom for MongoTemplate-backed queries.
  */
-public interface PostRepository extends MongoRepository<Post, String> {
+public interface PostRepository extends MongoRepository<Post, String>, PostRepositoryCustom {
 
     /**
      * Finds all posts created by a specific user.
@@ -0,0 +1,51 @@
+package com.skillshare.backend.repository;
+
+import com.skillshare.backend.model.Post;
+import com.skillshare.backend.responses.PostSummary;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Custom PostRepository fragment for queries that need MongoTemplate.
+ */
+public interface PostRepositoryCustom {
+
+    /**
+     * Fetches one page of the feed, newest first, using a (createdAt, id) keyset.
+     *
+     * @param beforeCreatedAt createdAt of the last post already seen, or null for the first page.
+     * @param beforeId        id of the last post already seen, or null for the first page.
+     * @param limit           Maximum number of posts to return.
+     * @param latestComments  Number of most recent comments to include per post, read from the comments collection.
+     * @return Slim post summaries ordered by createdAt and id descending.
+     */
+    List<PostSummary> findFeedPage(Date beforeCreatedAt, String beforeId, int limit, int latestComments);
+
+    /**
+     * Fetches summaries for the given post ids, in the order of the ids. Missing posts are left out.
+     */
+    List<PostSummary> findSummaries(List<String> ids, int latestComments);
+
+    /**
+     * Atomically records a user's reaction with $set on that user's map entries only.
+     *
+     * @return true if the post exists.
+     */
+    boolean setReaction(String postId, String userId, String userName, String reaction);
+
+    /**
+     * Atomically adjusts the denormalized commentCount with $inc.
+     *
+     * @return true if the post exists.
+     */
+    boolean incrementCommentCount(String postId, int delta);
+
+    /**
+     * Sets the editable fields of a post with $set, leaving counters, reactions and comments untouched.
+     * Null arguments are left unchanged.
+     *
+     * @return The updated post, or null if it does not exist.
+     */
+    Post updateEditableFields(String postId, String content, List<String> mediaUrls, List<String> mediaTypes);
+}
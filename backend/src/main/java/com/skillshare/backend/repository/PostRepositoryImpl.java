@@ -0,0 +1,133 @@
+package com.skillshare.backend.repository;
+
+import com.skillshare.backend.model.Comment;
+import com.skillshare.backend.model.Post;
+import com.skillshare.backend.responses.PostSummary;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * MongoTemplate-backed implementation of PostRepositoryCustom.
+ * Picked up by Spring Data through the "Impl" suffix.
+ */
+public class PostRepositoryImpl implements PostRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public List<PostSummary> findFeedPage(Date beforeCreatedAt, String beforeId, int limit, int latestComments) {
+        List<AggregationOperation> stages = new ArrayList<>();
+
+        // Keyset condition: strictly older than the cursor, ties broken by id
+        if (beforeCreatedAt != null && beforeId != null) {
+            stages.add(Aggregation.match(new Criteria().orOperator(
+                    Criteria.where("createdAt").lt(beforeCreatedAt),
+                    Criteria.where("createdAt").is(beforeCreatedAt).and("_id").lt(toObjectId(beforeId)))));
+        }
+        stages.add(Aggregation.sort(Sort.by(Sort.Direction.DESC, "createdAt", "_id")));
+        stages.add(Aggregation.limit(limit));
+        return summarize(stages, latestComments);
+    }
+
+    @Override
+    public List<PostSummary> findSummaries(List<String> ids, int latestComments) {
+        if (ids.isEmpty()) return List.of();
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(Aggregation.match(Criteria.where("_id").in(ids.stream().map(this::toObjectId).toList())));
+        Map<String, PostSummary> byId = new HashMap<>();
+        for (PostSummary summary : summarize(stages, latestComments)) byId.put(summary.getId(), summary);
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    // Appends the summary stages to a pipeline that selects and orders posts
+    private List<PostSummary> summarize(List<AggregationOperation> stages, int latestComments) {
+        if (latestComments > 0) stages.add(context -> latestCommentsLookup(latestComments));
+        stages.add(context -> new Document("$project", summaryProjection(latestComments)));
+
+        List<PostSummary> page = mongoTemplate.aggregate(Aggregation.newAggregation(stages), "posts", PostSummary.class)
+                .getMappedResults();
+        // The lookup reads newest first; show them in the order they were written
+        page.forEach(summary -> {
+            if (summary.getLatestComments() != null) Collections.reverse(summary.getLatestComments());
+        });
+        return page;
+    }
+
+    @Override
+    public boolean setReaction(String postId, String userId, String userName, String reaction) {
+        Update update = new Update()
+                .set("reactions." + userId, reaction)
+                .set("reactionUsers." + userId, userName);
+        return mongoTemplate.updateFirst(byId(postId), update, Post.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public boolean incrementCommentCount(String postId, int delta) {
+        Update update = new Update().inc("commentCount", delta);
+        return mongoTemplate.updateFirst(byId(postId), update, Post.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public Post updateEditableFields(String postId, String content, List<String> mediaUrls, List<String> mediaTypes) {
+        Update update = new Update();
+        if (content != null) update.set("content", content);
+        if (mediaUrls != null) update.set("mediaUrls", mediaUrls);
+        if (mediaTypes != null) update.set("mediaTypes", mediaTypes);
+        if (update.getUpdateObject().isEmpty()) return mongoTemplate.findOne(byId(postId), Post.class);
+        return mongoTemplate.findAndModify(byId(postId), update, FindAndModifyOptions.options().returnNew(true), Post.class);
+    }
+
+    private Query byId(String postId) {
+        return Query.query(Criteria.where("_id").is(toObjectId(postId)));
+    }
+
+    // Newest comments of each post through the (postId, commentedAt) index
+    private Document latestCommentsLookup(int latestComments) {
+        return new Document("$lookup", new Document("from", mongoTemplate.getCollectionName(Comment.class))
+                .append("let", new Document("postId", new Document("$toString", "$_id")))
+                .append("pipeline", List.of(
+                        new Document("$match", new Document("$expr", new Document("$eq", List.of("$postId", "$$postId")))),
+                        new Document("$sort", new Document("commentedAt", -1).append("_id", -1)),
+                        new Document("$limit", latestComments)))
+                .append("as", "latestComments"));
+    }
+
+    // Projects counts and the newest comments instead of the full reaction maps
+    private Document summaryProjection(int latestComments) {
+        Document project = new Document("userId", 1)
+                .append("content", 1)
+                .append("mediaUrls", 1)
+                .append("mediaTypes", 1)
+                .append("createdAt", 1)
+                .append("reactionCount", new Document("$size",
+                        new Document("$objectToArray", new Document("$ifNull", List.of("$reactions", new Document())))))
+                // Posts not migrated yet still carry their comments embedded and have no commentCount
+                .append("commentCount", new Document("$add", List.of(
+                        new Document("$ifNull", List.of("$commentCount", 0)),
+                        new Document("$size", new Document("$ifNull", List.of("$comments", List.of()))))));
+        if (latestComments > 0) project.append("latestComments", 1);
+        return project;
+    }
+
+    private Object toObjectId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+}
@@ -1,12 +1,25 @@
 package com.skillshare.backend.repository;
 
 import com.skillshare.backend.model.Story;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Date;
 import java.util.List;
 
 @Repository
-public interface StoryRepository extends MongoRepository<Story, String> {
+public interface StoryRepository extends MongoRepository<Story, String>, StoryRepositoryCustom {
     List<Story> findByUserId(String userId);
+
+    // Stories created before the cutoff, with only the fields needed to delete them
+    @Query(value = "{ 'createdAt': { $lt: ?0 } }", fields = "{ '_id': 1, 'mediaUrl': 1 }")
+    List<Story> findExpired(Date cutoff, Pageable pageable);
+
+    // Live stories, read through the createdAt index; sort order comes from the Sort
+    List<Story> findByCreatedAtAfter(Date createdAfter, Sort sort);
+
+    boolean existsByMediaUrl(String mediaUrl);
 }
@@ -0,0 +1,21 @@
+package com.skillshare.backend.repository;
+
+import com.skillshare.backend.responses.StoryTrayEntry;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Custom StoryRepository fragment for queries that need MongoTemplate.
+ */
+public interface StoryRepositoryCustom {
+
+    /**
+     * Groups live stories by author for the story tray, computing the viewer's seen state in the database.
+     *
+     * @param viewerId     User looking at the tray.
+     * @param createdAfter Stories created before this are expired and left out.
+     * @return One entry per author, authors with unseen stories first, then by latest story.
+     */
+    List<StoryTrayEntry> findTray(String viewerId, Date createdAfter);
+}
@@ -0,0 +1,61 @@
+package com.skillshare.backend.repository;
+
+import com.skillshare.backend.responses.StoryTrayEntry;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * MongoTemplate-backed implementation of StoryRepositoryCustom.
+ * Picked up by Spring Data through the "Impl" suffix.
+ */
+public class StoryRepositoryImpl implements StoryRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public List<StoryTrayEntry> findTray(String viewerId, Date createdAfter) {
+        // Seen state is one _id lookup per story in story_views, whatever the number of viewers
+        Document viewLookup = new Document("$lookup", new Document("from", "story_views")
+                .append("let", new Document("viewId",
+                        new Document("$concat", List.of(new Document("$toString", "$_id"), ":" + viewerId))))
+                .append("pipeline", List.of(
+                        new Document("$match", new Document("$expr", new Document("$eq", List.of("$_id", "$$viewId")))),
+                        new Document("$limit", 1),
+                        new Document("$project", new Document("_id", 1))))
+                .append("as", "viewerView"));
+        Document seen = new Document("$gt", List.of(new Document("$size", "$viewerView"), 0));
+        List<AggregationOperation> stages = List.of(
+                Aggregation.match(Criteria.where("createdAt").gte(createdAfter)),
+                Aggregation.sort(Sort.by(Sort.Direction.DESC, "createdAt")),
+                context -> viewLookup,
+                context -> new Document("$group", new Document("_id", "$userId")
+                        .append("userName", new Document("$first", "$userName"))
+                        .append("userProfilePic", new Document("$first", "$userProfilePic"))
+                        .append("latestStoryId", new Document("$first", "$_id"))
+                        .append("latestCreatedAt", new Document("$first", "$createdAt"))
+                        .append("storyCount", new Document("$sum", 1))
+                        .append("unseenCount", new Document("$sum", new Document("$cond", List.of(seen, 0, 1))))),
+                context -> new Document("$project", new Document("_id", 0)
+                        .append("userId", "$_id")
+                        .append("userName", 1)
+                        .append("userProfilePic", 1)
+                        .append("latestStoryId", new Document("$toString", "$latestStoryId"))
+                        .append("latestCreatedAt", 1)
+                        .append("storyCount", 1)
+                        .append("unseenCount", 1)
+                        .append("hasUnseen", new Document("$gt", List.of("$unseenCount", 0)))),
+                Aggregation.sort(Sort.by(Sort.Direction.DESC, "hasUnseen", "latestCreatedAt")));
+
+        return mongoTemplate.aggregate(Aggregation.newAggregation(stages), "stories", StoryTrayEntry.class)
+                .getMappedResults();
+    }
+}
@@ -0,0 +1,26 @@
+package com.skillshare.backend.repository;
+
+import com.skillshare.backend.model.StoryView;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface StoryViewRepository extends MongoRepository<StoryView, String> {
+
+    // First page of a story's viewers; sort order comes from the Pageable
+    List<StoryView> findByStoryId(String storyId, Pageable pageable);
+
+    // Viewers after a (viewedAt, id) keyset cursor, earliest first
+    @Query("{ 'storyId': ?0, $or: [ { 'viewedAt': { $gt: ?1 } }, { 'viewedAt': ?1, '_id': { $gt: ?2 } } ] }")
+    List<StoryView> findByStoryIdAfter(String storyId, Date afterViewedAt, String afterId, Pageable pageable);
+
+    // Exact number of viewers, counted on the story_viewers_idx index
+    long countByStoryId(String storyId);
+
+    void deleteByStoryId(String storyId);
+}
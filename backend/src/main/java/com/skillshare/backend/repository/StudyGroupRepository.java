@@ -6,7 +6,7 @@ import com.skillshare.backend.model.StudyGroup;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import java.util.List;
 
-public interface StudyGroupRepository extends MongoRepository<StudyGroup, String> {
+public interface StudyGroupRepository extends MongoRepository<StudyGroup, String>, StudyGroupRepositoryCustom {
     List<StudyGroup> findByCreatorId(String creatorId);
-    List<StudyGroup> findByMemberIdsContains(String memberId);
+    List<StudyGroup> findByMemberIdsContains(String memberId); // Legacy groups not yet migrated to group_members
 }
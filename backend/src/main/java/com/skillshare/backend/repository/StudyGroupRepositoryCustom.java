@@ -0,0 +1,33 @@
+package com.skillshare.backend.repository;
+
+import com.skillshare.backend.model.StudyGroup;
+
+import java.util.List;
+
+/**
+ * Custom StudyGroupRepository fragment for queries that need MongoTemplate.
+ */
+public interface StudyGroupRepositoryCustom {
+
+    /**
+     * Atomically adjusts the denormalized memberCount with $inc.
+     *
+     * @return true if the group exists.
+     */
+    boolean incrementMemberCount(String groupId, int delta);
+
+    /**
+     * Removes a user from the legacy memberIds list with $pull.
+     *
+     * @return true if the user was listed there.
+     */
+    boolean pullLegacyMember(String groupId, String userId);
+
+    /**
+     * Sets the fields a group edit may change with $set, leaving members and counters alone.
+     * Null arguments are left unchanged.
+     *
+     * @return The updated group, or null if it does not exist.
+     */
+    StudyGroup updateEditableFields(String groupId, String name, String description, List<String> pinnedResources);
+}
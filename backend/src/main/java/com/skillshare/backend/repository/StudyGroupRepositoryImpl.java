@@ -0,0 +1,49 @@
+package com.skillshare.backend.repository;
+
+import com.skillshare.backend.model.StudyGroup;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+/**
+ * MongoTemplate-backed implementation of StudyGroupRepositoryCustom.
+ * Picked up by Spring Data through the "Impl" suffix.
+ */
+public class StudyGroupRepositoryImpl implements StudyGroupRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean incrementMemberCount(String groupId, int delta) {
+        return mongoTemplate.updateFirst(byId(groupId), new Update().inc("memberCount", delta), StudyGroup.class)
+                .getMatchedCount() > 0;
+    }
+
+    @Override
+    public boolean pullLegacyMember(String groupId, String userId) {
+        Query listed = byId(groupId).addCriteria(Criteria.where("memberIds").is(userId));
+        return mongoTemplate.updateFirst(listed, new Update().pull("memberIds", userId), StudyGroup.class)
+                .getModifiedCount() > 0;
+    }
+
+    @Override
+    public StudyGroup updateEditableFields(String groupId, String name, String description, List<String> pinnedResources) {
+        Update update = new Update();
+        if (name != null) update.set("name", name);
+        if (description != null) update.set("description", description);
+        if (pinnedResources != null) update.set("pinnedResources", pinnedResources);
+        if (update.getUpdateObject().isEmpty()) return mongoTemplate.findOne(byId(groupId), StudyGroup.class);
+        return mongoTemplate.findAndModify(byId(groupId), update, FindAndModifyOptions.options().returnNew(true), StudyGroup.class);
+    }
+
+    private Query byId(String groupId) {
+        return Query.query(Criteria.where("_id").is(ObjectId.isValid(groupId) ? new ObjectId(groupId) : groupId));
+    }
+}
@@ -11,4 +11,7 @@ public interface UserRepository extends MongoRepository<User, String> {
 
     // ✅ Supports case-insensitive name or email search for search bars
     List<User> findByNameContainingIgnoreCaseOrEmailContainingIgnoreCase(String name, String email);
+
+    // Number of users interested in a category, served by the categories index
+    long countByCategories(String category);
 }
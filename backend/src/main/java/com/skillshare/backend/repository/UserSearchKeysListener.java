@@ -0,0 +1,46 @@
+package com.skillshare.backend.repository;
+
+import com.skillshare.backend.model.User;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Recomputes User.searchKeys on every save so the prefix search index never goes stale.
+ */
+@Component
+public class UserSearchKeysListener extends AbstractMongoEventListener<User> {
+
+    @Override
+    public void onBeforeConvert(BeforeConvertEvent<User> event) {
+        User user = event.getSource();
+        user.setSearchKeys(searchKeys(user));
+    }
+
+    // Each word of the name and last name, the full name, and the email, all lowercase
+    public static List<String> searchKeys(User user) {
+        Set<String> keys = new LinkedHashSet<>();
+        addWords(keys, user.getName());
+        addWords(keys, user.getLastName());
+        if (user.getName() != null && user.getLastName() != null) {
+            keys.add((user.getName() + " " + user.getLastName()).trim().toLowerCase(Locale.ROOT));
+        }
+        if (user.getEmail() != null) keys.add(user.getEmail().toLowerCase(Locale.ROOT));
+        return new ArrayList<>(keys);
+    }
+
+    private static void addWords(Set<String> keys, String value) {
+        if (value == null || value.isBlank()) return;
+        String lower = value.trim().toLowerCase(Locale.ROOT);
+        keys.add(lower);
+        for (String word : lower.split("\\s+")) {
+            if (!word.isEmpty()) keys.add(word);
+        }
+    }
+}
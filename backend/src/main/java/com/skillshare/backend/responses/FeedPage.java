@@ -0,0 +1,15 @@
+package com.skillshare.backend.responses;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * One page of a cursor-paginated listing.
+ * nextCursor is null when there are no more items.
+ */
+@Getter @Setter @AllArgsConstructor @NoArgsConstructor
+public class FeedPage<T> {
+    private List<T> items;
+    private String nextCursor;
+}
@@ -0,0 +1,43 @@
+package com.skillshare.backend.responses;
+
+import org.bson.types.ObjectId;
+
+import java.util.Date;
+
+/**
+ * The "{time millis}_{id}" cursor of the keyset listings: the sort time and id of the last item already seen.
+ * Pass its text form as FeedPage.nextCursor and parse it back from the cursor request parameter.
+ */
+public record KeysetCursor(Date time, String id) {
+
+    /**
+     * Parses a cursor from a request.
+     *
+     * @return null for a missing or empty cursor, which means the first page.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    public static KeysetCursor parse(String cursor) {
+        if (cursor == null || cursor.isEmpty()) return null;
+        int sep = cursor.indexOf('_');
+        if (sep <= 0 || sep == cursor.length() - 1) throw new IllegalArgumentException("Invalid cursor");
+        try {
+            return new KeysetCursor(new Date(Long.parseLong(cursor.substring(0, sep))), cursor.substring(sep + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public static String of(Date time, Object id) {
+        return time.getTime() + "_" + id;
+    }
+
+    /**
+     * The id as an ObjectId, for listings keyed on _id.
+     *
+     * @throws IllegalArgumentException if the id is not an ObjectId.
+     */
+    public ObjectId objectId() {
+        if (!ObjectId.isValid(id)) throw new IllegalArgumentException("Invalid cursor");
+        return new ObjectId(id);
+    }
+}
@@ -0,0 +1,20 @@
+package com.skillshare.backend.responses;
+
+import lombok.*;
+
+/**
+ * Learning progress of one user across all of their plans.
+ * currentStreak is zero once a full day has passed without completing a milestone.
+ */
+@Getter @Setter @AllArgsConstructor @NoArgsConstructor
+public class LearningStatsSummary {
+    private String userId;
+    private int planCount;
+    private int totalMilestones;
+    private int completedMilestones;
+    private double completionRate;
+    private int overdueMilestones;
+    private int dueToday;
+    private int currentStreak;
+    private int longestStreak;
+}
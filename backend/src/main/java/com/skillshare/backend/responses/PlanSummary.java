@@ -0,0 +1,24 @@
+package com.skillshare.backend.responses;
+
+import lombok.*;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Learning plan as listed in the public catalog, without resources or milestone details.
+ */
+@Getter @Setter @AllArgsConstructor @NoArgsConstructor
+public class PlanSummary {
+    private String id;
+    private String userId;
+    private String title;
+    private String goal;
+    private List<String> tags;
+    private Date startDate;
+    private Date endDate;
+    private int milestoneCount;
+    private int completedMilestones;
+    private int percentComplete;
+    private long viewCount;
+}
@@ -0,0 +1,24 @@
+package com.skillshare.backend.responses;
+
+import com.skillshare.backend.model.Comment;
+import lombok.*;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Slim projection of a Post used by the feed.
+ * Carries counts and the latest few comments instead of the full embedded arrays.
+ */
+@Getter @Setter @AllArgsConstructor @NoArgsConstructor
+public class PostSummary {
+    private String id;
+    private String userId;
+    private String content;
+    private List<String> mediaUrls;
+    private List<String> mediaTypes;
+    private Date createdAt;
+    private int reactionCount;
+    private int commentCount;
+    private List<Comment> latestComments;
+}
@@ -0,0 +1,14 @@
+package com.skillshare.backend.responses;
+
+import lombok.*;
+
+/**
+ * The fragment of a Post changed by a reaction.
+ */
+@Getter @Setter @AllArgsConstructor @NoArgsConstructor
+public class ReactionUpdate {
+    private String postId;
+    private String userId;
+    private String userName;
+    private String reaction;
+}
@@ -0,0 +1,20 @@
+package com.skillshare.backend.responses;
+
+import lombok.*;
+
+import java.util.Date;
+
+/**
+ * One author in the story tray: how many live stories they have and whether the viewer has seen them all.
+ */
+@Getter @Setter @AllArgsConstructor @NoArgsConstructor
+public class StoryTrayEntry {
+    private String userId;
+    private String userName;
+    private String userProfilePic;
+    private int storyCount;
+    private int unseenCount;
+    private boolean hasUnseen;
+    private String latestStoryId;
+    private Date latestCreatedAt;
+}
@@ -0,0 +1,13 @@
+package com.skillshare.backend.responses;
+
+import lombok.*;
+
+/**
+ * Number of distinct viewers of a story; exact is false when the count is a HyperLogLog estimate.
+ */
+@Getter @Setter @AllArgsConstructor @NoArgsConstructor
+public class StoryViewCount {
+    private String storyId;
+    private long viewCount;
+    private boolean exact;
+}
@@ -0,0 +1,12 @@
+package com.skillshare.backend.responses;
+
+import lombok.*;
+
+/**
+ * A normalized tag and the number of learning plans carrying it.
+ */
+@Getter @Setter @AllArgsConstructor @NoArgsConstructor
+public class TagCount {
+    private String tag;
+    private long count;
+}
@@ -0,0 +1,14 @@
+package com.skillshare.backend.responses;
+
+import lombok.*;
+
+/**
+ * Public, lightweight view of a User with no credentials or account state.
+ */
+@Getter @Setter @AllArgsConstructor @NoArgsConstructor
+public class UserSummary {
+    private String id;
+    private String name;
+    private String lastName;
+    private String profilePic;
+}
@@ -0,0 +1,98 @@
+package com.skillshare.backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.skillshare.backend.model.User;
+import com.skillshare.backend.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches the expensive parts of authenticating a request:
+ * verified token -> (email, tokenVersion), and email -> User.
+ * Call invalidateUser whenever a user's tokenVersion, status or profile changes.
+ */
+@Component
+public class AuthCache {
+
+    @Autowired
+    private JwtUtil jwtUtil;
+    @Autowired
+    private UserRepository userRepo;
+
+    private final Cache<String, VerifiedToken> tokens;
+    private final Cache<String, User> users;
+
+    public AuthCache(@Value("${auth.cache.max-tokens:100000}") long maxTokens,
+                     @Value("${auth.cache.max-users:50000}") long maxUsers,
+                     @Value("${auth.cache.ttl-seconds:300}") long ttlSeconds) {
+        long ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(maxTokens)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    // Never keep a token past its own expiry
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+                        long untilExpiry = TimeUnit.MILLISECONDS.toNanos(value.expiresAtMillis() - System.currentTimeMillis());
+                        return Math.max(0, Math.min(ttlNanos, untilExpiry));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    /**
+     * Returns the verified contents of a token, parsing and checking its signature only on a cache miss.
+     * Returns null for invalid or expired tokens.
+     */
+    public VerifiedToken verify(String token) {
+        VerifiedToken cached = tokens.getIfPresent(token);
+        if (cached != null) {
+            return cached.expiresAtMillis() > System.currentTimeMillis() ? cached : null;
+        }
+        Claims claims = jwtUtil.parseToken(token);
+        if (claims == null) return null;
+
+        Integer version = claims.get("version", Integer.class);
+        long expiresAt = claims.getExpiration() != null ? claims.getExpiration().getTime() : Long.MAX_VALUE;
+        VerifiedToken verified = new VerifiedToken(claims.getSubject(), version, expiresAt);
+        tokens.put(token, verified);
+        return verified;
+    }
+
+    /**
+     * Returns the user for an email, loading it from Mongo on a cache miss.
+     */
+    public User user(String email) {
+        User cached = users.getIfPresent(email);
+        if (cached != null) return cached;
+        User user = userRepo.findByEmail(email);
+        if (user != null) users.put(email, user);
+        return user;
+    }
+
+    public void invalidateUser(String email) {
+        if (email != null) users.invalidate(email);
+    }
+
+    public record VerifiedToken(String email, Integer version, long expiresAtMillis) {}
+}
@@ -2,8 +2,9 @@
 package com.skillshare.backend.security;
 
 import com.skillshare.backend.model.User;
-import com.skillshare.backend.repository.UserRepository;
-import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -21,29 +22,45 @@ import java.io.IOException;
 public class JwtFilter extends OncePerRequestFilter {
 
     @Autowired
-    private JwtUtil jwtUtil;
+    private AuthCache authCache;
     @Autowired
-    private UserRepository userRepo;
+    private MeterRegistry meterRegistry;
+
+    private Timer authenticateTimer;
+
+    @PostConstruct
+    void registerMetrics() {
+        authenticateTimer = Timer.builder("auth.jwt.filter")
+                .description("Time spent authenticating a request's bearer token")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
             throws ServletException, IOException {
+        // Only this filter's own work is timed, not the rest of the chain
+        Timer.Sample sample = Timer.start(meterRegistry);
+        authenticate(request);
+        sample.stop(authenticateTimer);
+        chain.doFilter(request, response);
+    }
 
+    private void authenticate(HttpServletRequest request) {
         String header = request.getHeader("Authorization");
 
         if (header != null && header.startsWith("Bearer ")) {
             String token = header.substring(7);
-            if (jwtUtil.validateToken(token)) {
-                String email = jwtUtil.extractUsername(token);
-                Claims claims = jwtUtil.getClaims(token);
-                User user = userRepo.findByEmail(email);
-                if (user != null && (claims.get("version") == null || user.getTokenVersion() == (int) claims.get("version"))) {
+            // Signature is verified at most once per token; user lookups are served from cache
+            AuthCache.VerifiedToken verified = authCache.verify(token);
+            if (verified != null) {
+                User user = authCache.user(verified.email());
+                if (user != null && (verified.version() == null || user.getTokenVersion() == verified.version())) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(user, null, null);
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
                 }
             }
         }
-        chain.doFilter(request, response);
     }
-}
\ No newline at end of file
+}
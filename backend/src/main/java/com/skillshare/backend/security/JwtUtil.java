@@ -11,6 +11,8 @@ import java.util.Date;
 @Component
 public class JwtUtil {
     private final Key key = Keys.hmacShaKeyFor("mysecretkey1234567890mysecretkey123456".getBytes());
+    // Parsers are immutable and thread-safe, so one instance is shared by every request
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(key).build();
 
     public String generateToken(String email) {
         return Jwts.builder()
@@ -32,19 +34,23 @@ public class JwtUtil {
     }
 
     public String extractUsername(String token) {
-        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody().getSubject();
+        return parser.parseClaimsJws(token).getBody().getSubject();
     }
 
     public Claims getClaims(String token) {
-        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
-    public boolean validateToken(String token) {
+    // Verifies the signature once and returns the claims, or null if the token is invalid
+    public Claims parseToken(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
-            return true;
+            return parser.parseClaimsJws(token).getBody();
         } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            return null;
         }
     }
+
+    public boolean validateToken(String token) {
+        return parseToken(token) != null;
+    }
 }
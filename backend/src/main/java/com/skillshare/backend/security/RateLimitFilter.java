@@ -0,0 +1,102 @@
+package com.skillshare.backend.security;
+
+import com.skillshare.backend.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Applies the per-route budgets from RateLimitProperties.
+ * Runs after JwtFilter so requests are counted per authenticated user; /api/auth/** and anonymous
+ * requests are counted per client IP. Refused requests get 429 with a Retry-After header.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private RateLimitProperties properties;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<String, Counter> rejected = new HashMap<>();
+    private TokenBucketLimiter limiter;
+
+    @PostConstruct
+    void init() {
+        limiter = new TokenBucketLimiter(properties.getMaxKeys(), Duration.ofMinutes(properties.getIdleMinutes()));
+        for (RateLimitProperties.Rule rule : properties.getRules()) {
+            rejected.put(rule.getName(), Counter.builder("http.ratelimit.rejected")
+                    .tag("rule", rule.getName())
+                    .description("Requests refused by the rate limiter")
+                    .register(meterRegistry));
+        }
+        Gauge.builder("http.ratelimit.keys", limiter, TokenBucketLimiter::size)
+                .description("Rate limit buckets held in memory")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getServletPath();
+        RateLimitProperties.Rule rule = matchingRule(path);
+        if (rule == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String key = rule.getName() + ":" + clientKey(request, path);
+        long waitNanos = limiter.tryAcquire(key, rule.getCapacity(), rule.getPerSecond(), System.nanoTime());
+        if (waitNanos > 0) {
+            rejected.get(rule.getName()).increment();
+            long retryAfterSeconds = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+            response.setStatus(429);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            response.setContentType("text/plain");
+            response.getWriter().write("Too many requests");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private RateLimitProperties.Rule matchingRule(String path) {
+        for (RateLimitProperties.Rule rule : properties.getRules()) {
+            if (pathMatcher.match(rule.getPattern(), path)) return rule;
+        }
+        return null;
+    }
+
+    // Login and signup are limited per IP, since there is no user yet and credential stuffing rotates accounts
+    private String clientKey(HttpServletRequest request, String path) {
+        if (!path.startsWith("/api/auth/")) {
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            if (auth != null && auth.getPrincipal() instanceof User user && user.getId() != null) {
+                return "u:" + user.getId();
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
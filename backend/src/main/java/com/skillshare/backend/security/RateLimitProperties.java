@@ -0,0 +1,31 @@
+package com.skillshare.backend.security;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-route request budgets, bound from the rate-limit.* properties.
+ * Rules are matched in order and the first rule whose pattern matches the path applies.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+    private long maxKeys = 100_000;       // Buckets kept in memory at most
+    private long idleMinutes = 10;        // Buckets unused this long are dropped
+    private List<Rule> rules = new ArrayList<>();
+
+    @Data
+    public static class Rule {
+        private String name;
+        private String pattern;           // Ant-style path pattern, e.g. /api/posts/**
+        private int capacity;             // Burst size
+        private double perSecond;         // Sustained rate
+    }
+}
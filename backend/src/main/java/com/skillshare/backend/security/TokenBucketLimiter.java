@@ -0,0 +1,54 @@
+package com.skillshare.backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets for many keys, each held in a single AtomicLong and updated with compare-and-set.
+ * A bucket stores its "theoretical arrival time" (the GCRA form of a token bucket): the time at which it
+ * would be full again. Taking a token pushes that time forward by one refill interval; a request is
+ * refused if that would put it more than a full bucket ahead of now.
+ * Keys live in a size-bounded Caffeine map and are dropped after being idle, which only ever gives a
+ * client a full bucket back.
+ */
+public final class TokenBucketLimiter {
+
+    private final Cache<String, AtomicLong> buckets;
+
+    public TokenBucketLimiter(long maxKeys, Duration idleExpiry) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleExpiry)
+                .build();
+    }
+
+    /**
+     * Takes one token from the key's bucket.
+     *
+     * @param capacity  Burst size: tokens available to a full bucket.
+     * @param perSecond Refill rate in tokens per second.
+     * @param nowNanos  Current System.nanoTime().
+     * @return 0 if the request is allowed, otherwise the nanoseconds until a token is available.
+     */
+    public long tryAcquire(String key, int capacity, double perSecond, long nowNanos) {
+        AtomicLong bucket = buckets.getIfPresent(key);
+        if (bucket == null) bucket = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+
+        long interval = (long) (1_000_000_000L / perSecond);
+        long burst = interval * capacity;
+        while (true) {
+            long tat = bucket.get();
+            long next = Math.max(tat, nowNanos) + interval;
+            long ahead = next - nowNanos;
+            if (ahead > burst) return ahead - burst;
+            if (bucket.compareAndSet(tat, next)) return 0;
+        }
+    }
+
+    public long size() {
+        return buckets.estimatedSize();
+    }
+}
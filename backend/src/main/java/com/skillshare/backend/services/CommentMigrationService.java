@@ -0,0 +1,141 @@
+package com.skillshare.backend.services;
+
+import com.skillshare.backend.model.Comment;
+import com.skillshare.backend.model.Post;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Moves comments embedded in posts into the comments collection, a batch of posts at a time, while the app serves traffic.
+ * Each comment gets an id derived from (postId, position), so a batch interrupted halfway is simply redone.
+ * A post's embedded array is removed, and its commentCount raised, in one update that only matches if the
+ * array still has the size that was copied.
+ */
+@Service
+public class CommentMigrationService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${comments.migration.enabled:true}")
+    private boolean enabled;
+    @Value("${comments.migration.batch-size:200}")
+    private int batchSize;
+    @Value("${comments.migration.pause-ms:100}")
+    private long pauseMs;
+
+    private volatile boolean done;
+    private Counter migratedComments;
+    private Counter migratedPosts;
+
+    @PostConstruct
+    void registerMetrics() {
+        migratedComments = Counter.builder("comments.migrated")
+                .description("Embedded comments copied into the comments collection")
+                .register(meterRegistry);
+        migratedPosts = Counter.builder("comments.migrated.posts")
+                .description("Posts whose embedded comments were removed")
+                .register(meterRegistry);
+    }
+
+    // Runs until no post has embedded comments left, then stays idle
+    @Scheduled(fixedDelay = 300000, initialDelay = 30000) // Every 5 minutes
+    public void migrateEmbeddedComments() {
+        if (!enabled || done) return;
+        List<Post> batch;
+        do {
+            batch = nextBatch();
+            for (Post post : batch) migrate(post);
+            // Leave room for regular traffic between batches
+            if (!batch.isEmpty() && pauseMs > 0) {
+                try {
+                    Thread.sleep(pauseMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        } while (!batch.isEmpty());
+        done = true;
+    }
+
+    private List<Post> nextBatch() {
+        Query query = Query.query(Criteria.where("comments").exists(true)).limit(batchSize);
+        query.fields().include("_id", "comments");
+        return mongoTemplate.find(query, Post.class);
+    }
+
+    private void migrate(Post post) {
+        List<Comment> comments = post.getComments() != null ? post.getComments() : List.of();
+
+        if (!comments.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Comment.class);
+            for (int i = 0; i < comments.size(); i++) {
+                Comment comment = comments.get(i);
+                Date commentedAt = comment.getCommentedAt() != null ? comment.getCommentedAt() : new Date(0);
+                Update fields = new Update()
+                        .setOnInsert("postId", post.getId())
+                        .setOnInsert("userId", comment.getUserId())
+                        .setOnInsert("userName", comment.getUserName())
+                        .setOnInsert("commentText", comment.getCommentText())
+                        .setOnInsert("commentedAt", commentedAt);
+                bulk.upsert(Query.query(Criteria.where("_id").is(migratedId(post.getId(), i, commentedAt))), fields);
+            }
+            bulk.execute();
+        }
+
+        // Skipped if the array changed since it was read; the next pass copies it again
+        Criteria unchanged = Criteria.where("_id").is(toObjectId(post.getId()));
+        if (comments.isEmpty()) {
+            unchanged.orOperator(Criteria.where("comments").is(null), Criteria.where("comments").size(0));
+        } else {
+            unchanged.and("comments").size(comments.size());
+        }
+        Update update = new Update().unset("comments").inc("commentCount", comments.size());
+        if (mongoTemplate.updateFirst(Query.query(unchanged), update, Post.class).getModifiedCount() > 0) {
+            migratedComments.increment(comments.size());
+            migratedPosts.increment();
+        }
+    }
+
+    // Keeps the commentedAt second in the id, like a generated ObjectId, so (commentedAt, _id) order stays natural
+    static ObjectId migratedId(String postId, int position, Date commentedAt) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest((postId + ":" + position).getBytes(StandardCharsets.UTF_8));
+            byte[] id = new byte[12];
+            int seconds = (int) (commentedAt.getTime() / 1000);
+            id[0] = (byte) (seconds >>> 24);
+            id[1] = (byte) (seconds >>> 16);
+            id[2] = (byte) (seconds >>> 8);
+            id[3] = (byte) seconds;
+            System.arraycopy(hash, 0, id, 4, 8);
+            return new ObjectId(id);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Object toObjectId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+}
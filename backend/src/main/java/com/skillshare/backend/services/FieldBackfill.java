@@ -0,0 +1,65 @@
+package com.skillshare.backend.services;
+
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Fills a derived field on documents saved before the field existed, one batch per run, so a run never holds
+ * the shared scheduler thread for long. Every save since the field was added sets it, so once a run finds
+ * nothing missing the backfill is done and later runs return at once, as in GroupMembershipMigrationService.
+ */
+public class FieldBackfill<T> {
+
+    private final MongoTemplate mongoTemplate;
+    private final Class<T> type;
+    private final String field;
+    private final int batchSize;
+    private final String[] sourceFields;
+    private final Function<T, String> id;
+    private final Function<T, Update> fill;
+
+    private volatile boolean done;
+
+    /**
+     * @param sourceFields Fields the fill is computed from; only these are read.
+     * @param fill         The update that sets the field on one document.
+     */
+    public FieldBackfill(MongoTemplate mongoTemplate, Class<T> type, String field, int batchSize,
+                         List<String> sourceFields, Function<T, String> id, Function<T, Update> fill) {
+        this.mongoTemplate = mongoTemplate;
+        this.type = type;
+        this.field = field;
+        this.batchSize = batchSize;
+        this.sourceFields = sourceFields.toArray(String[]::new);
+        this.id = id;
+        this.fill = fill;
+    }
+
+    // Whether no document is missing the field any more
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Fills the next batch of documents missing the field. A document saved meanwhile already has it and is left alone.
+     */
+    public void run() {
+        if (done) return;
+        Query missing = Query.query(Criteria.where(field).exists(false)).limit(batchSize);
+        missing.fields().include(sourceFields);
+        List<T> batch = mongoTemplate.find(missing, type);
+        if (batch.isEmpty()) {
+            done = true;
+            return;
+        }
+        for (T document : batch) {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(id.apply(document)).and(field).exists(false)),
+                    fill.apply(document), type);
+        }
+    }
+}
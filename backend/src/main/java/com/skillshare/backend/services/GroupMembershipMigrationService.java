@@ -0,0 +1,137 @@
+package com.skillshare.backend.services;
+
+import com.mongodb.bulk.BulkWriteUpsert;
+import com.skillshare.backend.model.GroupMember;
+import com.skillshare.backend.model.StudyGroup;
+import com.skillshare.backend.repository.StudyGroupRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Moves StudyGroup.memberIds into the group_members collection, a batch of groups at a time, while the app serves traffic.
+ * Members are upserted by (userId, groupId), so users who joined through the new endpoints meanwhile are not duplicated,
+ * and memberCount is raised only by the memberships the migration actually inserted. Users who leave while their
+ * group is being migrated are pulled from memberIds by the leave, which the migration checks before keeping them.
+ * The creator is always migrated as the owner.
+ */
+@Service
+public class GroupMembershipMigrationService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private StudyGroupRepository groupRepo;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${groups.migration.enabled:true}")
+    private boolean enabled;
+    @Value("${groups.migration.batch-size:200}")
+    private int batchSize;
+    @Value("${groups.migration.pause-ms:100}")
+    private long pauseMs;
+
+    private volatile boolean done;
+    private Counter migratedMembers;
+    private Counter migratedGroups;
+
+    @PostConstruct
+    void registerMetrics() {
+        migratedMembers = Counter.builder("groups.migrated.members")
+                .description("Legacy memberIds entries copied into group_members")
+                .register(meterRegistry);
+        migratedGroups = Counter.builder("groups.migrated")
+                .description("Groups whose memberIds list was removed")
+                .register(meterRegistry);
+    }
+
+    // Whether no group has a memberIds list left, so legacy lookups can be skipped
+    public boolean isDone() {
+        return done;
+    }
+
+    // Runs until no group has memberIds left, then stays idle
+    @Scheduled(fixedDelay = 300000, initialDelay = 30000) // Every 5 minutes
+    public void migrateMemberIds() {
+        if (!enabled || done) return;
+        List<StudyGroup> batch;
+        do {
+            batch = nextBatch();
+            for (StudyGroup group : batch) migrate(group);
+            // Leave room for regular traffic between batches
+            if (!batch.isEmpty() && pauseMs > 0) {
+                try {
+                    Thread.sleep(pauseMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        } while (!batch.isEmpty());
+        done = true;
+    }
+
+    private List<StudyGroup> nextBatch() {
+        Query query = Query.query(Criteria.where("memberIds").exists(true)).limit(batchSize);
+        query.fields().include("_id", "creatorId", "memberIds", "createdAt");
+        return mongoTemplate.find(query, StudyGroup.class);
+    }
+
+    private void migrate(StudyGroup group) {
+        Set<String> userIds = new LinkedHashSet<>();
+        if (group.getCreatorId() != null) userIds.add(group.getCreatorId());
+        if (group.getMemberIds() != null) group.getMemberIds().stream().filter(id -> id != null && !id.isEmpty()).forEach(userIds::add);
+        Date joinedAt = group.getCreatedAt() != null ? group.getCreatedAt() : new Date(0);
+
+        List<String> inserted = new ArrayList<>();
+        if (!userIds.isEmpty()) {
+            List<String> ordered = new ArrayList<>(userIds);
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, GroupMember.class);
+            for (String userId : ordered) {
+                Update fields = new Update()
+                        .setOnInsert("role", userId.equals(group.getCreatorId()) ? GroupMember.OWNER : GroupMember.MEMBER)
+                        .setOnInsert("joinedAt", joinedAt);
+                bulk.upsert(pair(group.getId(), userId), fields);
+            }
+            for (BulkWriteUpsert upsert : bulk.execute().getUpserts()) inserted.add(ordered.get(upsert.getIndex()));
+        }
+        if (!inserted.isEmpty()) groupRepo.incrementMemberCount(group.getId(), inserted.size());
+
+        // A member is kept only if their memberIds entry is still there to pull; otherwise they left after
+        // the batch was read, and the copy just made is removed again. The owner cannot leave and is always kept.
+        int kept = inserted.size();
+        for (String userId : inserted) {
+            if (userId.equals(group.getCreatorId()) || groupRepo.pullLegacyMember(group.getId(), userId)) continue;
+            if (mongoTemplate.remove(pair(group.getId(), userId), GroupMember.class).getDeletedCount() > 0) {
+                groupRepo.incrementMemberCount(group.getId(), -1);
+                kept--;
+            }
+        }
+
+        Query byId = Query.query(Criteria.where("_id").is(ObjectId.isValid(group.getId()) ? new ObjectId(group.getId()) : group.getId()));
+        mongoTemplate.updateFirst(byId, new Update().unset("memberIds"), StudyGroup.class);
+        migratedMembers.increment(kept);
+        migratedGroups.increment();
+    }
+
+    private static Query pair(String groupId, String userId) {
+        return Query.query(Criteria.where("userId").is(userId).and("groupId").is(groupId));
+    }
+}
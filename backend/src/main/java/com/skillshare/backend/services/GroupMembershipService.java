@@ -0,0 +1,99 @@
+package com.skillshare.backend.services;
+
+import com.skillshare.backend.model.GroupMember;
+import com.skillshare.backend.model.StudyGroup;
+import com.skillshare.backend.repository.GroupMemberRepository;
+import com.skillshare.backend.repository.StudyGroupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Study group membership as one group_members document per (user, group).
+ * Joining is an upsert and leaving a delete; memberCount on the group moves only when one of them
+ * actually inserted or removed a document, so repeated or concurrent calls keep the count exact.
+ */
+@Service
+public class GroupMembershipService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private GroupMemberRepository memberRepo;
+    @Autowired
+    private StudyGroupRepository groupRepo;
+    @Autowired
+    private GroupMembershipMigrationService migration;
+
+    /**
+     * Adds a user to a group with the given role.
+     *
+     * @return true if the user was not a member before.
+     */
+    public boolean join(String groupId, String userId, String role) {
+        Query pair = Query.query(Criteria.where("userId").is(userId).and("groupId").is(groupId));
+        Update update = new Update()
+                .setOnInsert("role", role)
+                .setOnInsert("joinedAt", new Date());
+        try {
+            if (mongoTemplate.upsert(pair, update, GroupMember.class).getUpsertedId() == null) return false;
+        } catch (DuplicateKeyException e) {
+            return false; // A concurrent join of the same pair won the unique index
+        }
+        groupRepo.incrementMemberCount(groupId, 1);
+        return true;
+    }
+
+    /**
+     * Removes a user from a group.
+     *
+     * @return true if the user was a member.
+     */
+    public boolean leave(String groupId, String userId) {
+        // Legacy list first: the migration only keeps a copied member whose entry it could still pull afterwards
+        boolean listed = groupRepo.pullLegacyMember(groupId, userId);
+        Query pair = Query.query(Criteria.where("userId").is(userId).and("groupId").is(groupId));
+        if (mongoTemplate.remove(pair, GroupMember.class).getDeletedCount() == 0) return listed;
+        groupRepo.incrementMemberCount(groupId, -1);
+        return true;
+    }
+
+    /**
+     * Whether a user belongs to a group, checking legacy memberIds until the migration finishes.
+     */
+    public boolean isMember(String groupId, String userId) {
+        if (userId == null) return false;
+        if (memberRepo.findByUserIdAndGroupId(userId, groupId).isPresent()) return true;
+        if (migration.isDone()) return false;
+        StudyGroup group = groupRepo.findById(groupId).orElse(null);
+        return group != null && group.getMemberIds() != null && group.getMemberIds().contains(userId);
+    }
+
+    /**
+     * Groups a user belongs to, through the (userId, groupId) index.
+     * Until the migration finishes, groups still listing the user in memberIds are included too.
+     */
+    public List<StudyGroup> joinedGroups(String userId) {
+        List<String> groupIds = memberRepo.findByUserId(userId).stream().map(GroupMember::getGroupId).toList();
+        Map<String, StudyGroup> groups = new LinkedHashMap<>();
+        for (StudyGroup group : groupRepo.findAllById(groupIds)) groups.put(group.getId(), group);
+        if (!migration.isDone()) {
+            for (StudyGroup group : groupRepo.findByMemberIdsContains(userId)) groups.putIfAbsent(group.getId(), group);
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    public void deleteMembers(String groupId) {
+        memberRepo.deleteByGroupId(groupId);
+    }
+}
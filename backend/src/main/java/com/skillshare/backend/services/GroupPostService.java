@@ -0,0 +1,160 @@
+package com.skillshare.backend.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.skillshare.backend.model.GroupPost;
+import com.skillshare.backend.repository.GroupPostRepository;
+import com.skillshare.backend.responses.FeedPage;
+import com.skillshare.backend.responses.KeysetCursor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Group discussion posts, newest first, paged with a (createdAt, id) keyset.
+ * The newest page of recently active groups is kept in memory and updated in place when a post is written,
+ * so opening a group is answered without a query. Older pages always come from Mongo.
+ * Posts written through other instances only show up once the cached page is reloaded, so a page is
+ * dropped a fixed time after it was loaded, however busy the group is.
+ */
+@Service
+public class GroupPostService {
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt", "_id");
+    // Same order in memory; ObjectId hex strings sort like the ids themselves
+    private static final Comparator<GroupPost> NEWEST = Comparator.comparing(GroupPost::getCreatedAt)
+            .thenComparing(GroupPost::getId).reversed();
+
+    @Autowired
+    private GroupPostRepository postRepo;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final int hotPageSize;
+    private final Cache<String, List<GroupPost>> newest;
+    // Bumped on every write to a group hashing to the slot; a page loaded across a write is not cached
+    private final AtomicLongArray writeGenerations = new AtomicLongArray(1024);
+
+    @Autowired
+    public GroupPostService(@Value("${groups.posts.hot-groups:10000}") long hotGroups,
+                            @Value("${groups.posts.hot-page-size:20}") int hotPageSize,
+                            @Value("${groups.posts.hot-max-age-seconds:30}") long maxAgeSeconds) {
+        this(hotGroups, hotPageSize, maxAgeSeconds, Ticker.systemTicker());
+    }
+
+    GroupPostService(long hotGroups, int hotPageSize, long maxAgeSeconds, Ticker ticker) {
+        this.hotPageSize = hotPageSize;
+        long maxAge = Duration.ofSeconds(maxAgeSeconds).toNanos();
+        this.newest = Caffeine.newBuilder()
+                .maximumSize(hotGroups)
+                // Counted from the load; unlike expireAfterWrite, adding a local post does not restart it
+                .expireAfter(new Expiry<String, List<GroupPost>>() {
+                    @Override
+                    public long expireAfterCreate(String groupId, List<GroupPost> page, long now) {
+                        return maxAge;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String groupId, List<GroupPost> page, long now, long remaining) {
+                        return remaining;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String groupId, List<GroupPost> page, long now, long remaining) {
+                        return remaining;
+                    }
+                })
+                .ticker(ticker)
+                .recordStats()
+                .build();
+    }
+
+    @PostConstruct
+    void registerMetrics() {
+        CaffeineCacheMetrics.monitor(meterRegistry, newest, "groupPostsNewest");
+    }
+
+    /**
+     * One page of a group's posts, newest first.
+     *
+     * @param beforeCreatedAt createdAt of the last post already seen, or null for the first page.
+     * @param beforeId        id of the last post already seen, or null for the first page.
+     */
+    public FeedPage<GroupPost> page(String groupId, Date beforeCreatedAt, ObjectId beforeId, int limit) {
+        List<GroupPost> items;
+        if (beforeCreatedAt == null && limit <= hotPageSize) {
+            List<GroupPost> page = newestPage(groupId);
+            items = page.size() > limit ? page.subList(0, limit) : page;
+        } else if (beforeCreatedAt == null) {
+            items = postRepo.findByGroupId(groupId, PageRequest.of(0, limit, NEWEST_FIRST));
+        } else {
+            items = postRepo.findByGroupIdBefore(groupId, beforeCreatedAt, beforeId, PageRequest.of(0, limit, NEWEST_FIRST));
+        }
+
+        String nextCursor = null;
+        if (items.size() == limit) {
+            GroupPost last = items.get(items.size() - 1);
+            nextCursor = KeysetCursor.of(last.getCreatedAt(), last.getId());
+        }
+        return new FeedPage<>(items, nextCursor);
+    }
+
+    /**
+     * Stores a post and adds it to the group's cached newest page, if that page is cached.
+     */
+    public GroupPost publish(GroupPost post) {
+        GroupPost saved = postRepo.insert(post);
+        writeGenerations.incrementAndGet(slot(saved.getGroupId()));
+        newest.asMap().computeIfPresent(saved.getGroupId(), (groupId, page) -> withPost(page, saved));
+        return saved;
+    }
+
+    public void deleteGroupPosts(String groupId) {
+        postRepo.deleteByGroupId(groupId);
+        writeGenerations.incrementAndGet(slot(groupId));
+        newest.invalidate(groupId);
+    }
+
+    private List<GroupPost> newestPage(String groupId) {
+        List<GroupPost> cached = newest.getIfPresent(groupId);
+        if (cached != null) return cached;
+
+        int slot = slot(groupId);
+        long generation = writeGenerations.get(slot);
+        List<GroupPost> loaded = List.copyOf(postRepo.findByGroupId(groupId, PageRequest.of(0, hotPageSize, NEWEST_FIRST)));
+        // Runs under the map's lock for this key, so it cannot interleave with publish updating the same page
+        List<GroupPost> page = newest.asMap().compute(groupId, (key, existing) ->
+                existing != null ? existing : writeGenerations.get(slot) == generation ? loaded : null);
+        return page != null ? page : loaded;
+    }
+
+    // Inserts in order rather than at the head, since concurrent writes may finish out of createdAt order
+    List<GroupPost> withPost(List<GroupPost> page, GroupPost post) {
+        List<GroupPost> updated = new ArrayList<>(page.size() + 1);
+        updated.addAll(page);
+        int at = 0;
+        while (at < updated.size() && NEWEST.compare(updated.get(at), post) < 0) at++;
+        updated.add(at, post);
+        if (updated.size() > hotPageSize) updated.remove(updated.size() - 1);
+        return List.copyOf(updated);
+    }
+
+    private static int slot(String groupId) {
+        return (groupId.hashCode() & Integer.MAX_VALUE) % 1024;
+    }
+}
@@ -0,0 +1,58 @@
+package com.skillshare.backend.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Fixed-size HyperLogLog sketch for approximate distinct counts.
+ * 2^12 registers give a standard error of about 1.6% in 16 KiB, whatever the number of items.
+ * Adding is lock-free, so many threads can record into one sketch.
+ */
+public final class HyperLogLog {
+
+    private static final int P = 12;
+    private static final int M = 1 << P;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / M);
+
+    private final AtomicIntegerArray registers = new AtomicIntegerArray(M);
+
+    public void add(String item) {
+        long hash = hash(item);
+        int index = (int) (hash >>> (64 - P));
+        // Position of the first 1-bit in the remaining bits; the trailing 1 bounds it for all-zero input
+        int rank = Long.numberOfLeadingZeros((hash << P) | (1L << (P - 1))) + 1;
+        int current;
+        while ((current = registers.get(index)) < rank) {
+            if (registers.compareAndSet(index, current, rank)) break;
+        }
+    }
+
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (int i = 0; i < M; i++) {
+            int register = registers.get(i);
+            sum += 1.0 / (1L << register);
+            if (register == 0) zeros++;
+        }
+        double estimate = ALPHA * M * M / sum;
+        // Linear counting is more accurate while many registers are still empty
+        if (estimate <= 2.5 * M && zeros > 0) estimate = M * Math.log((double) M / zeros);
+        return Math.round(estimate);
+    }
+
+    // 64-bit FNV-1a followed by the MurmurHash3 finalizer to spread the bits
+    private static long hash(String item) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : item.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
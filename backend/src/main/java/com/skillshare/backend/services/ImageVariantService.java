@@ -0,0 +1,270 @@
+package com.skillshare.backend.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.skillshare.backend.config.Threads;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates smaller copies of uploaded images on a bounded background pool.
+ * Variants live under /media/variants/{name}_w{width}.{jpg|png} and are picked by
+ * ImageVariantResourceResolver from the ?w= request parameter; the original is served until they exist.
+ * When the queue is full new work is dropped, since the original remains a valid fallback.
+ */
+@Service
+public class ImageVariantService {
+
+    private static final List<String> READABLE = List.of("jpg", "jpeg", "png", "gif", "bmp");
+    private static final long MAX_PIXELS = 50_000_000L; // Refuse to decode anything larger
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Path mediaDir = Paths.get(System.getProperty("user.dir"), "media");
+    private final Path variantDir = mediaDir.resolve("variants");
+    private final int[] widths;
+    private final ThreadPoolExecutor workers;
+    // Decoded width of originals asked for by ?w=, 0 for files that will never get variants
+    private final Cache<String, Integer> originalWidths;
+
+    private Timer processTimer;
+    private Counter dropped;
+
+    public ImageVariantService(@Value("${media.variants.widths:64,320,640,1080}") int[] widths,
+                               @Value("${media.variants.threads:2}") int threads,
+                               @Value("${media.variants.queue-capacity:1000}") int queueCapacity,
+                               @Value("${media.variants.known-originals:100000}") long knownOriginals) {
+        this.widths = Arrays.stream(widths).sorted().toArray();
+        this.originalWidths = Caffeine.newBuilder().maximumSize(knownOriginals).build();
+        // Resizing is CPU-bound, so this pool stays on platform threads even in virtual-thread mode
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), Threads.platformThreads("image-variants", Thread.NORM_PRIORITY - 1));
+    }
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("media.variants.queue", workers, w -> w.getQueue().size())
+                .description("Images waiting for variant generation")
+                .register(meterRegistry);
+        processTimer = Timer.builder("media.variants.process")
+                .description("Time to generate all variants of one image")
+                .register(meterRegistry);
+        dropped = Counter.builder("media.variants.dropped")
+                .description("Images skipped because the variant queue was full")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Queues variant generation for a stored image URL such as /media/{name}. Non-images are ignored.
+     */
+    public void submit(String url) {
+        if (url == null || !url.startsWith("/media/")) return;
+        String name = url.substring("/media/".length());
+        if (name.contains("/") || !READABLE.contains(extension(name))) return;
+        try {
+            workers.execute(() -> processTimer.record(() -> generate(name)));
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+        }
+    }
+
+    public void submitAll(List<String> urls) {
+        if (urls != null) urls.forEach(this::submit);
+    }
+
+    /**
+     * Smallest configured width that is at least the requested width, or -1 if there is none.
+     */
+    public int pickWidth(int requested) {
+        for (int width : widths) {
+            if (width >= requested) return width;
+        }
+        return -1;
+    }
+
+    /**
+     * Whether no variant will ever be generated for an original file and requested width, so the original
+     * is the final answer: no configured width is large enough, the file is not a readable image, or the
+     * original is not wider than the variant (generate never upscales).
+     * The original's width is read from its header once and then remembered.
+     */
+    public boolean variantNeverExists(String name, int requested) {
+        int width = pickWidth(requested);
+        if (width < 0 || !READABLE.contains(extension(name))) return true;
+        Integer originalWidth = originalWidths.getIfPresent(name);
+        if (originalWidth == null) {
+            originalWidth = readWidth(mediaDir.resolve(name));
+            if (originalWidth == null) return false;
+            originalWidths.put(name, originalWidth);
+        }
+        return originalWidth <= width;
+    }
+
+    /**
+     * Name of the variant for an original file name and width, e.g. abc.jpeg -> abc_w320.jpg.
+     */
+    public static String variantName(String name, int width) {
+        String ext = extension(name);
+        String base = ext.isEmpty() ? name : name.substring(0, name.length() - ext.length() - 1);
+        return base + "_w" + width + ("png".equals(ext) || "gif".equals(ext) ? ".png" : ".jpg");
+    }
+
+    /**
+     * Deletes every variant of an original file, e.g. when the original is garbage-collected.
+     */
+    public void deleteVariants(String name) {
+        originalWidths.invalidate(name);
+        if (!Files.isDirectory(variantDir)) return;
+        String ext = extension(name);
+        String base = ext.isEmpty() ? name : name.substring(0, name.length() - ext.length() - 1);
+        try (DirectoryStream<Path> variants = Files.newDirectoryStream(variantDir, base + "_w*")) {
+            for (Path variant : variants) Files.deleteIfExists(variant);
+        } catch (IOException ignored) {
+            // Left behind; harmless
+        }
+    }
+
+    private void generate(String name) {
+        Path source = mediaDir.resolve(name);
+        try {
+            BufferedImage original = read(source);
+            if (original == null) return;
+            Files.createDirectories(variantDir);
+
+            for (int width : widths) {
+                if (width >= original.getWidth()) break;
+                Path target = variantDir.resolve(variantName(name, width));
+                if (Files.exists(target)) continue;
+
+                int height = Math.max(1, (int) Math.round((double) original.getHeight() * width / original.getWidth()));
+                BufferedImage scaled = scale(original, width, height, target.toString().endsWith(".png"));
+                Path tmp = Files.createTempFile(variantDir, ".variant-", ".tmp");
+                try {
+                    write(scaled, tmp, target.toString().endsWith(".png") ? "png" : "jpg");
+                    Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } finally {
+                    Files.deleteIfExists(tmp);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // The original keeps being served; nothing else to do
+        }
+    }
+
+    // Decodes the image only if its declared dimensions are within MAX_PIXELS
+    private BufferedImage read(Path source) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            if (in == null) return null;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_PIXELS) return null;
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Width from the image header without decoding it; 0 if it will never be decoded, null if it cannot be read now
+    private Integer readWidth(Path source) {
+        if (!Files.isRegularFile(source)) return null;
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) return 0;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_PIXELS) return 0;
+                return reader.getWidth(0);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            return null;
+        } catch (RuntimeException e) {
+            return 0;
+        }
+    }
+
+    // Downscales in halving steps before the final pass, which keeps bilinear filtering sharp
+    private BufferedImage scale(BufferedImage image, int width, int height, boolean alpha) {
+        BufferedImage current = image;
+        int w = image.getWidth();
+        int h = image.getHeight();
+        do {
+            w = Math.max(width, w / 2);
+            h = Math.max(height, h / 2);
+            BufferedImage next = new BufferedImage(w, h, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.drawImage(current, 0, 0, w, h, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (w != width || h != height);
+        return current;
+    }
+
+    private void write(BufferedImage image, Path target, String format) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if ("jpg".equals(format)) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(0.82f);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static String extension(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,343 @@
+package com.skillshare.backend.services;
+
+import com.skillshare.backend.model.LearningPlan;
+import com.skillshare.backend.model.LearningStats;
+import com.skillshare.backend.model.Milestone;
+import com.skillshare.backend.repository.LearningPlanRepository;
+import com.skillshare.backend.repository.LearningPlanTagsListener;
+import com.skillshare.backend.responses.LearningStatsSummary;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Keeps milestone counters on each plan and per-user totals in learning_stats, both updated by the
+ * difference a write makes, so progress and stats are read from one document instead of scanning plans.
+ * Plan writes go through here as single findAndModify calls, so each diff is taken against the document it replaced.
+ * A plan is counted into its owner's totals exactly once, by whichever of a write or the first stats read
+ * flips its statsCounted flag; after that every write to it applies its diff.
+ */
+@Service
+public class LearningStatsService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private LearningPlanRepository planRepo;
+
+    @Value("${plans.stats.backfill-batch-size:500}")
+    private int backfillBatchSize;
+
+    private FieldBackfill<LearningPlan> counterBackfill;
+
+    // Milestone totals of one plan; completedToday detects completions that extend a streak
+    private record Tally(int total, int completed, int completedToday, Map<String, Integer> pendingByDay) {
+        static final Tally EMPTY = new Tally(0, 0, 0, Map.of());
+
+        static Tally of(List<Milestone> milestones, String today) {
+            if (milestones == null || milestones.isEmpty()) return EMPTY;
+            int completed = 0;
+            int completedToday = 0;
+            Map<String, Integer> pendingByDay = new HashMap<>();
+            for (Milestone milestone : milestones) {
+                if (milestone.isCompleted()) {
+                    completed++;
+                    if (milestone.getCompletedAt() != null && today.equals(day(milestone.getCompletedAt()))) completedToday++;
+                } else if (milestone.getTargetDate() != null) {
+                    pendingByDay.merge(day(milestone.getTargetDate()), 1, Integer::sum);
+                }
+            }
+            return new Tally(milestones.size(), completed, completedToday, pendingByDay);
+        }
+    }
+
+    @PostConstruct
+    void createBackfill() {
+        counterBackfill = new FieldBackfill<>(mongoTemplate, LearningPlan.class, "milestoneCount", backfillBatchSize,
+                List.of("milestones"), LearningPlan::getId, plan -> {
+                    Tally tally = Tally.of(plan.getMilestones(), today());
+                    return new Update().set("milestoneCount", tally.total()).set("completedMilestones", tally.completed());
+                });
+    }
+
+    /**
+     * Inserts a new plan and counts it into its owner's stats.
+     */
+    public LearningPlan createPlan(LearningPlan plan) {
+        prepare(plan);
+        plan.setStatsCounted(false);
+        LearningPlan saved = mongoTemplate.insert(plan);
+        claim(saved.getId(), today());
+        return saved;
+    }
+
+    /**
+     * Replaces a plan in one findAndModify, keeping its view count, then applies the difference against
+     * the document it replaced to the owner's stats. Creates the plan if it does not exist.
+     *
+     * @return The plan as it was before the write, or null if it was created.
+     */
+    public LearningPlan replacePlan(String planId, LearningPlan plan) {
+        plan.setId(planId);
+        prepare(plan);
+        plan.setNormalizedTags(LearningPlanTagsListener.normalize(plan.getTags())); // No save event fires here
+        Document replacement = new Document();
+        mongoTemplate.getConverter().write(plan, replacement);
+        replacement.remove("viewCount");
+        replacement.remove("statsCounted");
+        // Views and the stats flag belong to the stored plan; $literal keeps user text from being read as expressions
+        AggregationUpdate update = AggregationUpdate.from(List.of(context -> new Document("$replaceWith",
+                new Document("$mergeObjects", List.of(
+                        new Document("$literal", replacement),
+                        new Document("viewCount", new Document("$ifNull", List.of("$viewCount", 0L)))
+                                .append("statsCounted", new Document("$ifNull", List.of("$statsCounted", false))))))));
+        LearningPlan before = mongoTemplate.findAndModify(byId(planId), update,
+                FindAndModifyOptions.options().returnNew(false).upsert(true), LearningPlan.class);
+
+        plan.setViewCount(before != null ? before.getViewCount() : 0);
+        if (before != null && before.isStatsCounted()) {
+            planSaved(before, plan);
+        } else {
+            claim(planId, today());
+        }
+        return before;
+    }
+
+    /**
+     * Removes a plan in one findAndRemove and takes the removed document out of its owner's stats.
+     *
+     * @return The removed plan, or null if it did not exist.
+     */
+    public LearningPlan deletePlan(String planId) {
+        LearningPlan removed = mongoTemplate.findAndRemove(byId(planId), LearningPlan.class);
+        if (removed != null && removed.isStatsCounted()) planSaved(removed, null);
+        return removed;
+    }
+
+    /**
+     * Replaces a plan's milestones and counters in one findAndModify, then applies the difference
+     * against the document it replaced to the owner's stats.
+     *
+     * @return The updated plan, or null if it does not exist.
+     */
+    public LearningPlan replaceMilestones(String planId, List<Milestone> milestones) {
+        List<Milestone> list = milestones != null ? milestones : new ArrayList<>();
+        stamp(list);
+        String today = today();
+        Tally now = Tally.of(list, today);
+        Update update = new Update()
+                .set("milestones", list)
+                .set("milestoneCount", now.total())
+                .set("completedMilestones", now.completed());
+        LearningPlan plan = mongoTemplate.findAndModify(byId(planId), update,
+                FindAndModifyOptions.options().returnNew(false), LearningPlan.class);
+        if (plan == null) return null;
+
+        if (plan.isStatsCounted()) {
+            apply(plan.getUserId(), Tally.of(plan.getMilestones(), today), now, 0, today);
+        } else {
+            claim(planId, today);
+        }
+        plan.setMilestones(list);
+        plan.setMilestoneCount(now.total());
+        plan.setCompletedMilestones(now.completed());
+        return plan;
+    }
+
+    /**
+     * Progress of one user across all of their plans, read from their stats document.
+     */
+    public LearningStatsSummary stats(String userId) {
+        LearningStats stats = mongoTemplate.findById(userId, LearningStats.class);
+        if (stats == null || !stats.isBuilt()) stats = build(userId);
+
+        String today = today();
+        int overdue = 0; // Writes drop days with nothing left open, so this walks only days with open milestones
+        for (Map.Entry<String, Integer> pending : stats.getPendingByDay().entrySet()) {
+            if (pending.getKey().compareTo(today) < 0) overdue += Math.max(0, pending.getValue());
+        }
+        boolean streakAlive = today.equals(stats.getLastCompletionDay()) || yesterday().equals(stats.getLastCompletionDay());
+        double rate = stats.getTotalMilestones() == 0 ? 0 : (double) stats.getCompletedMilestones() / stats.getTotalMilestones();
+        return new LearningStatsSummary(userId, stats.getPlanCount(), stats.getTotalMilestones(),
+                stats.getCompletedMilestones(), rate, overdue, Math.max(0, stats.getPendingByDay().getOrDefault(today, 0)),
+                streakAlive ? stats.getCurrentStreak() : 0, stats.getLongestStreak());
+    }
+
+    // Sets counters on plans saved before they existed, one small batch at a time, until none are left;
+    // a plan rewritten in the meantime already has them
+    @Scheduled(fixedDelay = 60000, initialDelay = 30000)
+    public void backfillPlanCounters() {
+        counterBackfill.run();
+    }
+
+    // Stamps newly completed milestones and sets the plan's counters before the plan is written whole
+    private static void prepare(LearningPlan plan) {
+        stamp(plan.getMilestones());
+        Tally tally = Tally.of(plan.getMilestones(), today());
+        plan.setMilestoneCount(tally.total());
+        plan.setCompletedMilestones(tally.completed());
+    }
+
+    // Applies a whole-plan write to its owner's stats; before is null for a new plan, after for a deleted one
+    private void planSaved(LearningPlan before, LearningPlan after) {
+        String today = today();
+        Tally was = before != null ? Tally.of(before.getMilestones(), today) : Tally.EMPTY;
+        Tally now = after != null ? Tally.of(after.getMilestones(), today) : Tally.EMPTY;
+        String previousOwner = before != null ? before.getUserId() : null;
+        String owner = after != null ? after.getUserId() : null;
+
+        if (Objects.equals(previousOwner, owner)) {
+            apply(owner, was, now, (after != null ? 1 : 0) - (before != null ? 1 : 0), today);
+        } else {
+            if (before != null) apply(previousOwner, was, Tally.EMPTY, -1, today);
+            if (after != null) apply(owner, Tally.EMPTY, now, 1, today);
+        }
+    }
+
+    // Counts a plan into its owner's stats unless a write or build already did
+    private void claim(String planId, String today) {
+        LearningPlan plan = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(planId).and("statsCounted").ne(true)),
+                new Update().set("statsCounted", true), FindAndModifyOptions.options().returnNew(true), LearningPlan.class);
+        if (plan != null) apply(plan.getUserId(), Tally.EMPTY, Tally.of(plan.getMilestones(), today), 1, today);
+    }
+
+    // Upserts so a write is never lost to a stats document that is still being built
+    private void apply(String userId, Tally before, Tally after, int planDelta, String today) {
+        if (userId == null) return;
+        Document set = new Document();
+        if (planDelta != 0) set.append("planCount", plus("planCount", planDelta));
+        if (after.total() != before.total()) set.append("totalMilestones", plus("totalMilestones", after.total() - before.total()));
+        if (after.completed() != before.completed()) {
+            set.append("completedMilestones", plus("completedMilestones", after.completed() - before.completed()));
+        }
+        Set<String> days = new HashSet<>(before.pendingByDay().keySet());
+        days.addAll(after.pendingByDay().keySet());
+        Document dayTotals = new Document();
+        for (String day : days) {
+            int delta = after.pendingByDay().getOrDefault(day, 0) - before.pendingByDay().getOrDefault(day, 0);
+            if (delta != 0) dayTotals.append(day, plus("pendingByDay." + day, delta));
+        }
+        if (!dayTotals.isEmpty()) {
+            // Days left at zero are dropped, so pendingByDay only holds days with open milestones
+            Document merged = new Document("$mergeObjects", List.of(
+                    new Document("$ifNull", List.of("$pendingByDay", new Document())), dayTotals));
+            set.append("pendingByDay", new Document("$arrayToObject", new Document("$filter",
+                    new Document("input", new Document("$objectToArray", merged))
+                            .append("as", "day")
+                            .append("cond", new Document("$ne", List.of("$$day.v", 0))))));
+        }
+
+        Query byUser = Query.query(Criteria.where("_id").is(userId));
+        if (!set.isEmpty()) {
+            set.append("built", new Document("$ifNull", List.of("$built", false)));
+            mongoTemplate.upsert(byUser, AggregationUpdate.from(List.of(context -> new Document("$set", set))), LearningStats.class);
+        }
+        if (after.completedToday() > before.completedToday()) recordCompletion(byUser, today);
+    }
+
+    private static Document plus(String field, int delta) {
+        return new Document("$add", List.of(new Document("$ifNull", List.of("$" + field, 0)), delta));
+    }
+
+    // Extends the streak if the last completion was yesterday, keeps it if today, otherwise restarts it
+    private void recordCompletion(Query byUser, String today) {
+        Document streak = new Document("$cond", List.of(
+                new Document("$eq", List.of("$lastCompletionDay", today)),
+                "$currentStreak",
+                new Document("$cond", List.of(
+                        new Document("$eq", List.of("$lastCompletionDay", yesterday())),
+                        new Document("$add", List.of(new Document("$ifNull", List.of("$currentStreak", 0)), 1)),
+                        1))));
+        AggregationUpdate update = AggregationUpdate.from(List.of(context -> new Document("$set",
+                new Document("currentStreak", streak)
+                        .append("longestStreak", new Document("$max", List.of("$longestStreak", streak)))
+                        .append("lastCompletionDay", today))));
+        mongoTemplate.updateFirst(byUser, update, LearningStats.class);
+    }
+
+    // Counts the plans no write has counted yet, then derives the streak from all completion days.
+    // Only runs until the user's stats are marked built; concurrent builds each count a disjoint set of plans.
+    private LearningStats build(String userId) {
+        TreeSet<String> completionDays = new TreeSet<>();
+        String today = today();
+        for (LearningPlan plan : planRepo.findByUserId(userId)) {
+            if (!plan.isStatsCounted()) claim(plan.getId(), today);
+            if (plan.getMilestones() == null) continue;
+            for (Milestone milestone : plan.getMilestones()) {
+                if (milestone.isCompleted() && milestone.getCompletedAt() != null) completionDays.add(day(milestone.getCompletedAt()));
+            }
+        }
+
+        int run = 0;
+        int longest = 0;
+        LocalDate previous = null;
+        for (String day : completionDays) {
+            LocalDate date = LocalDate.parse(day);
+            run = previous != null && previous.plusDays(1).equals(date) ? run + 1 : 1;
+            longest = Math.max(longest, run);
+            previous = date;
+        }
+        String last = completionDays.isEmpty() ? "" : completionDays.last();
+
+        // A completion recorded by a write after the scan is newer than the scan's streak, so it wins
+        Document newer = new Document("$gt", List.of(new Document("$ifNull", List.of("$lastCompletionDay", "")), last));
+        Document current = new Document("$cond", List.of(newer, "$currentStreak", run));
+        Document set = new Document("built", true)
+                .append("currentStreak", current)
+                .append("lastCompletionDay", new Document("$cond", List.of(newer, "$lastCompletionDay",
+                        last.isEmpty() ? null : last)))
+                .append("longestStreak", new Document("$max", List.of(
+                        new Document("$ifNull", List.of("$longestStreak", 0)), longest, current)));
+        AggregationUpdate update = AggregationUpdate.from(List.of(context -> new Document("$set", set)));
+        return mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(userId)), update,
+                FindAndModifyOptions.options().returnNew(true).upsert(true), LearningStats.class);
+    }
+
+    // Completion time for milestones newly marked completed; cleared again if they are reopened
+    private static void stamp(List<Milestone> milestones) {
+        if (milestones == null) return;
+        Date now = new Date();
+        for (Milestone milestone : milestones) {
+            if (!milestone.isCompleted()) milestone.setCompletedAt(null);
+            else if (milestone.getCompletedAt() == null) milestone.setCompletedAt(now);
+        }
+    }
+
+    private static Query byId(String planId) {
+        return Query.query(Criteria.where("_id").is(planId));
+    }
+
+    private static String today() {
+        return LocalDate.now(ZoneOffset.UTC).toString();
+    }
+
+    private static String yesterday() {
+        return LocalDate.now(ZoneOffset.UTC).minusDays(1).toString();
+    }
+
+    private static String day(Date date) {
+        return date.toInstant().atZone(ZoneOffset.UTC).toLocalDate().toString();
+    }
+}
@@ -0,0 +1,440 @@
+package com.skillshare.backend.services;
+
+import com.skillshare.backend.config.Threads;
+import com.skillshare.backend.model.MediaObject;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.io.FilenameUtils;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed media store for posts, stories and profiles.
+ * Uploads are streamed through NIO channels into a temp file while their SHA-256 is computed, fsynced,
+ * and kept once under /media/{sha256}.{ext}; identical uploads share one file. The "media" collection
+ * counts references to each file, and release() deletes the file when the last reference goes away.
+ * Batches are written in parallel and are all-or-nothing.
+ * The striped locks only serialize store() and release() within one instance. Across instances, the media
+ * document decides: release() deletes the file only if its conditional remove of the document succeeded.
+ * An upload of the same content on another instance, landing between that remove and the file delete, can
+ * still lose its file. Files left unreferenced the other way round are deleted by removeOrphans().
+ */
+@Service
+public class MediaStorageService {
+
+    private static final long CHUNK = 1 << 20; // 1 MiB per transferFrom call
+    private static final int LOCK_STRIPES = 64;
+    private static final String FOLDER = "media";
+    private static final Pattern HASHED_NAME = Pattern.compile("[0-9a-f]{64}(\\.[a-z0-9]+)?");
+    // Folders that only ever held one file per upload before content addressing, safe to delete directly
+    private static final List<String> LEGACY_FOLDERS = List.of("media", "uploads");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private ImageVariantService imageVariants;
+
+    @Value("${media.max-image-bytes:10485760}")
+    private long maxImageBytes;
+    @Value("${media.max-video-bytes:209715200}")
+    private long maxVideoBytes;
+    @Value("${media.acquire-timeout-seconds:30}")
+    private long acquireTimeoutSeconds;
+
+    private final Path root = Paths.get(System.getProperty("user.dir"));
+    private final Path dir = root.resolve(FOLDER);
+    // Caps the bytes being written at once across all requests, counted in KiB
+    private final Semaphore inFlightKiB;
+    private final int maxInFlightKiB;
+    private final ExecutorService writers;
+    // Serializes placing and garbage-collecting the same file
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    private volatile DedupeStats cachedStats;
+    private Counter uploadBytes;
+    private DistributionSummary uploadSize;
+
+    public MediaStorageService(@Value("${media.max-inflight-bytes:268435456}") long maxInFlightBytes,
+                               @Value("${media.writer-threads:8}") int writerThreads,
+                               @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.maxInFlightKiB = (int) Math.max(1, maxInFlightBytes / 1024);
+        this.inFlightKiB = new Semaphore(maxInFlightKiB, true);
+        // Writers block on disk I/O, so they run on virtual threads when those are enabled
+        this.writers = Executors.newFixedThreadPool(writerThreads, Threads.ioThreads("media-writer", virtualThreads));
+        for (int i = 0; i < LOCK_STRIPES; i++) locks[i] = new ReentrantLock();
+    }
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("media.dedupe.ratio", this, s -> s.stats().ratio())
+                .description("Bytes referenced divided by bytes stored")
+                .register(meterRegistry);
+        Gauge.builder("media.bytes.saved", this, s -> s.stats().bytesSaved())
+                .baseUnit("bytes")
+                .description("Disk space saved by storing identical uploads once")
+                .register(meterRegistry);
+        // Its rate is the upload throughput in bytes/sec
+        uploadBytes = Counter.builder("media.upload.bytes")
+                .baseUnit("bytes")
+                .description("Bytes received in media uploads")
+                .register(meterRegistry);
+        uploadSize = DistributionSummary.builder("media.upload.size")
+                .baseUnit("bytes")
+                .description("Size of each uploaded media file")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        writers.shutdown();
+    }
+
+    /**
+     * Stores every file, writing them in parallel.
+     *
+     * @throws IllegalArgumentException if a file exceeds the size limit for its type.
+     * @throws IOException              if a file could not be written; no references from the batch are kept.
+     */
+    public List<StoredMedia> storeAll(List<MultipartFile> files) throws IOException {
+        List<MultipartFile> nonEmpty = files == null ? List.of()
+                : files.stream().filter(f -> f != null && !f.isEmpty()).toList();
+        for (MultipartFile file : nonEmpty) checkSize(file);
+        if (nonEmpty.isEmpty()) return List.of();
+        if (nonEmpty.size() == 1) return List.of(store(nonEmpty.get(0)));
+
+        List<CompletableFuture<StoredMedia>> writes = new ArrayList<>();
+        for (MultipartFile file : nonEmpty) {
+            writes.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return store(file);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, writers));
+        }
+
+        List<StoredMedia> stored = new ArrayList<>();
+        Throwable failure = null;
+        for (CompletableFuture<StoredMedia> write : writes) {
+            try {
+                stored.add(write.join());
+            } catch (CompletionException e) {
+                if (failure == null) failure = e.getCause();
+            }
+        }
+        if (failure != null) {
+            releaseAll(stored);
+            if (failure instanceof IOException io) throw io;
+            if (failure instanceof RuntimeException re) throw re;
+            throw new IOException("Media upload failed", failure);
+        }
+        return stored;
+    }
+
+    /**
+     * Stores a single file and takes one reference to it.
+     */
+    public StoredMedia store(MultipartFile file) throws IOException {
+        String type = mediaType(file);
+        long limit = checkSize(file);
+        Files.createDirectories(dir);
+
+        int permits = (int) Math.min(maxInFlightKiB, Math.max(1, file.getSize() / 1024));
+        try {
+            if (!inFlightKiB.tryAcquire(permits, acquireTimeoutSeconds, TimeUnit.SECONDS)) {
+                throw new IOException("Upload capacity exhausted, try again later");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Upload interrupted", e);
+        }
+
+        Path tmp = Files.createTempFile(dir, ".upload-", ".tmp");
+        try {
+            MessageDigest sha256 = sha256();
+            long written = copy(file, tmp, limit, sha256);
+            uploadBytes.increment(written);
+            uploadSize.record(written);
+            String ext = extension(file);
+            if (!ext.matches("[a-z0-9]{1,10}")) ext = ""; // Only plain extensions become part of the stored name
+            String name = HexFormat.of().formatHex(sha256.digest()) + (ext.isEmpty() ? "" : "." + ext);
+            Path target = dir.resolve(name);
+
+            ReentrantLock lock = lockFor(name);
+            lock.lock();
+            try {
+                // Same content already on disk: keep the existing file and drop this copy
+                if (!Files.exists(target)) {
+                    Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                    syncDirectory(dir);
+                }
+                // Counted only once the file is durably in place. If the move fails nothing is counted;
+                // if this upsert fails the file stays unreferenced and a later upload of the same content reuses it
+                mongoTemplate.upsert(Query.query(Criteria.where("_id").is(name)),
+                        new Update().inc("refCount", 1).setOnInsert("size", written).setOnInsert("createdAt", new Date()),
+                        MediaObject.class);
+            } finally {
+                lock.unlock();
+            }
+            return new StoredMedia("/" + FOLDER + "/" + name, type, target, written);
+        } finally {
+            Files.deleteIfExists(tmp);
+            inFlightKiB.release(permits);
+        }
+    }
+
+    /**
+     * Drops one reference to a stored file and deletes the file once nothing references it.
+     * Files saved before content addressing are deleted directly.
+     *
+     * @return The number of bytes freed on disk.
+     */
+    public long release(String url) {
+        if (url == null || !url.startsWith("/")) return 0;
+        int slash = url.indexOf('/', 1);
+        if (slash < 0) return 0;
+        String folder = url.substring(1, slash);
+        String name = url.substring(slash + 1);
+
+        if (FOLDER.equals(folder) && HASHED_NAME.matcher(name).matches()) {
+            ReentrantLock lock = lockFor(name);
+            lock.lock();
+            try {
+                MediaObject media = mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(name)),
+                        new Update().inc("refCount", -1), FindAndModifyOptions.options().returnNew(true), MediaObject.class);
+                if (media == null) return deleteFile(dir.resolve(name));
+                if (media.getRefCount() > 0) return 0;
+                // Another instance may have taken a new reference since the decrement; then the file stays
+                if (mongoTemplate.remove(Query.query(Criteria.where("_id").is(name).and("refCount").lte(0)),
+                        MediaObject.class).getDeletedCount() == 0) return 0;
+                imageVariants.deleteVariants(name);
+                return deleteFile(dir.resolve(name));
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (LEGACY_FOLDERS.contains(folder)) {
+            Path folderPath = root.resolve(folder);
+            Path file = folderPath.resolve(name).normalize();
+            if (file.startsWith(folderPath)) return deleteFile(file);
+        }
+        return 0;
+    }
+
+    /**
+     * Deletes files under /media and /media/variants last modified before olderThan that nothing references:
+     * content-addressed files without a media document, variants whose original is gone, and temp files
+     * left by interrupted writes. Files named before content addressing are left alone.
+     */
+    public Swept removeOrphans(long olderThan) throws IOException {
+        long files = 0;
+        long bytes = 0;
+        if (Files.isDirectory(dir)) {
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+                for (Path file : entries) {
+                    BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                    if (!attrs.isRegularFile() || attrs.lastModifiedTime().toMillis() > olderThan) continue;
+                    String name = file.getFileName().toString();
+                    long freed = 0;
+                    if (name.startsWith(".upload-")) {
+                        freed = deleteFile(file);
+                    } else if (HASHED_NAME.matcher(name).matches()) {
+                        ReentrantLock lock = lockFor(name);
+                        lock.lock();
+                        try {
+                            if (!mongoTemplate.exists(Query.query(Criteria.where("_id").is(name)), MediaObject.class)) {
+                                imageVariants.deleteVariants(name);
+                                freed = deleteFile(file);
+                            }
+                        } finally {
+                            lock.unlock();
+                        }
+                    }
+                    if (freed > 0) {
+                        files++;
+                        bytes += freed;
+                    }
+                }
+            }
+        }
+
+        Path variants = dir.resolve("variants");
+        if (Files.isDirectory(variants)) {
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(variants)) {
+                for (Path file : entries) {
+                    BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                    if (!attrs.isRegularFile() || attrs.lastModifiedTime().toMillis() > olderThan) continue;
+                    String name = file.getFileName().toString();
+                    int suffix = name.lastIndexOf("_w");
+                    boolean orphan = name.startsWith(".variant-")
+                            || (suffix > 0 && !originalExists(name.substring(0, suffix)));
+                    long freed = orphan ? deleteFile(file) : 0;
+                    if (freed > 0) {
+                        files++;
+                        bytes += freed;
+                    }
+                }
+            }
+        }
+        return new Swept(files, bytes);
+    }
+
+    public long releaseAll(List<StoredMedia> stored) {
+        long freed = 0;
+        for (StoredMedia media : stored) freed += release(media.url());
+        return freed;
+    }
+
+    public long releaseUrls(List<String> urls) {
+        long freed = 0;
+        if (urls != null) for (String url : urls) freed += release(url);
+        return freed;
+    }
+
+    /**
+     * Dedupe statistics over the media collection, recomputed at most once a minute.
+     */
+    public DedupeStats stats() {
+        DedupeStats stats = cachedStats;
+        if (stats != null && System.currentTimeMillis() - stats.computedAt() < 60_000) return stats;
+
+        Document totals = mongoTemplate.aggregate(Aggregation.newAggregation(
+                Aggregation.group()
+                        .count().as("files")
+                        .sum("refCount").as("references")
+                        .sum("size").as("storedBytes")
+                        .sum(context -> new Document("$multiply", List.of("$size", "$refCount"))).as("referencedBytes")),
+                "media", Document.class).getUniqueMappedResult();
+
+        long files = totals == null ? 0 : ((Number) totals.get("files")).longValue();
+        long references = totals == null ? 0 : ((Number) totals.get("references")).longValue();
+        long storedBytes = totals == null ? 0 : ((Number) totals.get("storedBytes")).longValue();
+        long referencedBytes = totals == null ? 0 : ((Number) totals.get("referencedBytes")).longValue();
+        stats = new DedupeStats(files, references, storedBytes, referencedBytes - storedBytes,
+                storedBytes == 0 ? 1.0 : (double) referencedBytes / storedBytes, System.currentTimeMillis());
+        cachedStats = stats;
+        return stats;
+    }
+
+    public static String extension(MultipartFile file) {
+        String ext = FilenameUtils.getExtension(file.getOriginalFilename());
+        return ext == null ? "" : ext.toLowerCase(Locale.ROOT);
+    }
+
+    public static String mediaType(MultipartFile file) {
+        return extension(file).matches("mp4|webm") ? "video" : "image";
+    }
+
+    // Rejects files over the limit for their type and returns that limit
+    private long checkSize(MultipartFile file) {
+        long limit = "video".equals(mediaType(file)) ? maxVideoBytes : maxImageBytes;
+        if (file.getSize() > limit) {
+            throw new IllegalArgumentException("File " + file.getOriginalFilename() + " exceeds the " + limit + " byte limit");
+        }
+        return limit;
+    }
+
+    // Streams the upload into the file through channels, hashing as it goes, and fsyncs it before returning
+    private long copy(MultipartFile file, Path tmp, long limit, MessageDigest digest) throws IOException {
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest);
+             ReadableByteChannel src = Channels.newChannel(in);
+             FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = 0;
+            long n;
+            while ((n = out.transferFrom(src, position, CHUNK)) > 0) {
+                position += n;
+                if (position > limit) throw new IllegalArgumentException("File exceeds the " + limit + " byte limit");
+            }
+            out.force(true);
+            return position;
+        }
+    }
+
+    // Makes the rename durable; not supported on every platform, so failures are ignored
+    private void syncDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private long deleteFile(Path file) {
+        try {
+            long size = Files.size(file);
+            return Files.deleteIfExists(file) ? size : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    // Variant names drop the original's extension, so any file with the same base name counts
+    private boolean originalExists(String base) throws IOException {
+        if (Files.exists(dir.resolve(base))) return true;
+        String glob = base.replaceAll("([\\\\*?\\[\\]{},])", "\\\\$1") + ".*";
+        try (DirectoryStream<Path> originals = Files.newDirectoryStream(dir, glob)) {
+            return originals.iterator().hasNext();
+        }
+    }
+
+    private ReentrantLock lockFor(String name) {
+        return locks[Math.floorMod(name.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record StoredMedia(String url, String type, Path path, long size) {}
+
+    public record Swept(long files, long bytes) {}
+
+    public record DedupeStats(long files, long references, long storedBytes, long bytesSaved, double ratio, long computedAt) {}
+}
@@ -0,0 +1,154 @@
+package com.skillshare.backend.services;
+
+import com.skillshare.backend.config.Threads;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs BCrypt hashing and verification on a dedicated, size-capped pool so a burst of logins or signups
+ * can't occupy every request thread. When the pool and its queue are full, calls fail fast with
+ * RejectedExecutionException and the controller answers 429.
+ * The BCrypt cost is either fixed by auth.bcrypt.cost or calibrated at startup to auth.bcrypt.target-ms.
+ * Stored hashes keep the cost they were created with, so changing it never breaks existing logins.
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final int MIN_COST = 10;
+    private static final int MAX_COST = 14;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${auth.bcrypt.cost:0}")
+    private int configuredCost;
+    @Value("${auth.bcrypt.target-ms:250}")
+    private long targetMillis;
+    @Value("${auth.hashing.max-wait-ms:5000}")
+    private long maxWaitMillis;
+
+    private final ThreadPoolExecutor workers;
+    private volatile BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(MIN_COST);
+    private volatile int cost = MIN_COST;
+
+    private Timer encodeTimer;
+    private Timer verifyTimer;
+    private Counter rejected;
+
+    public PasswordHashingService(@Value("${auth.hashing.threads:0}") int threads,
+                                  @Value("${auth.hashing.queue-capacity:64}") int queueCapacity) {
+        // BCrypt is CPU-bound: one platform thread per core unless configured otherwise
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.workers = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), Threads.platformThreads("password-hashing", Thread.NORM_PRIORITY));
+    }
+
+    @PostConstruct
+    void init() {
+        encodeTimer = Timer.builder("auth.password.hash")
+                .tag("operation", "encode")
+                .description("Time to hash or verify a password, excluding queueing")
+                .register(meterRegistry);
+        verifyTimer = Timer.builder("auth.password.hash")
+                .tag("operation", "verify")
+                .description("Time to hash or verify a password, excluding queueing")
+                .register(meterRegistry);
+        rejected = Counter.builder("auth.password.rejected")
+                .description("Hashing requests turned away because the pool was full")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.queue", workers, w -> w.getQueue().size())
+                .description("Hashing requests waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.active", workers, ThreadPoolExecutor::getActiveCount)
+                .description("Hashing requests being processed")
+                .register(meterRegistry);
+        Gauge.builder("auth.bcrypt.cost", this, s -> s.cost)
+                .description("BCrypt cost used for new password hashes")
+                .register(meterRegistry);
+
+        cost = configuredCost > 0 ? configuredCost : calibrate();
+        encoder = new BCryptPasswordEncoder(cost);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    public String encode(String rawPassword) {
+        BCryptPasswordEncoder current = encoder;
+        return run(() -> encodeTimer.record(() -> current.encode(rawPassword)));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        if (encodedPassword == null) return false;
+        BCryptPasswordEncoder current = encoder;
+        return run(() -> verifyTimer.record(() -> current.matches(rawPassword, encodedPassword)));
+    }
+
+    public int cost() {
+        return cost;
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = workers.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+        try {
+            return future.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new RejectedExecutionException("Password hashing timed out", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    // Each cost step doubles the work, so time the minimum cost and pick the highest cost under the target
+    private int calibrate() {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(MIN_COST);
+        probe.encode("calibration"); // Warm up
+        long[] samples = new long[3];
+        for (int i = 0; i < samples.length; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration");
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        double millis = samples[1] / 1_000_000.0;
+
+        int calibrated = MIN_COST;
+        while (calibrated < MAX_COST && millis * 2 <= targetMillis) {
+            calibrated++;
+            millis *= 2;
+        }
+        return calibrated;
+    }
+}
@@ -0,0 +1,140 @@
+package com.skillshare.backend.services;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.skillshare.backend.model.LearningPlan;
+import com.skillshare.backend.repository.LearningPlanRepository;
+import com.skillshare.backend.responses.FeedPage;
+import com.skillshare.backend.responses.PlanSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Public learning plan catalog, one cursor page at a time, sorted by recency or popularity.
+ * Pages are cached and refreshed in the background once they are older than the refresh interval,
+ * so browsing never waits on Mongo for a cached page. View counts only reach popular pages on refresh;
+ * plan writes invalidate exactly the cached pages whose range the plan falls in.
+ */
+@Service
+public class PlanCatalogService {
+
+    public static final String RECENT = "recent";
+    public static final String POPULAR = "popular";
+
+    @Autowired
+    private LearningPlanRepository planRepo;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // A keyset page depends only on its cursor, so a write affects the pages around it and no others
+    private record PageKey(String sort, Long beforeViewCount, String beforeId, int limit) {}
+
+    private final LoadingCache<PageKey, FeedPage<PlanSummary>> pages;
+
+    public PlanCatalogService(@Value("${plans.catalog.cache-size:1000}") long cacheSize,
+                              @Value("${plans.catalog.refresh-seconds:30}") long refreshSeconds,
+                              @Value("${plans.catalog.expire-seconds:600}") long expireSeconds) {
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .refreshAfterWrite(Duration.ofSeconds(refreshSeconds))
+                .expireAfterWrite(Duration.ofSeconds(expireSeconds))
+                .recordStats()
+                .build(this::load);
+    }
+
+    @PostConstruct
+    void registerMetrics() {
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "planCatalog");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeViewCounts() {
+        planRepo.initializeViewCounts();
+    }
+
+    /**
+     * One page of the catalog. Pass the returned nextCursor back as cursor to get the following page.
+     *
+     * @throws IllegalArgumentException for an unknown sort or a malformed cursor.
+     */
+    public FeedPage<PlanSummary> page(String sort, String cursor, int limit) {
+        PageKey key = key(sort, cursor, limit);
+        // getAll loads outside the cache's internal locks, so a Mongo call never pins a virtual thread's carrier
+        return pages.getAll(List.of(key)).get(key);
+    }
+
+    /**
+     * Drops cached pages affected by a plan write. Pass null as before for a new plan and as after for a deleted one.
+     */
+    public void planChanged(LearningPlan before, LearningPlan after) {
+        for (Map.Entry<PageKey, FeedPage<PlanSummary>> entry : pages.asMap().entrySet()) {
+            if (affects(entry.getKey(), entry.getValue(), before) || affects(entry.getKey(), entry.getValue(), after)) {
+                pages.invalidate(entry.getKey());
+            }
+        }
+    }
+
+    private FeedPage<PlanSummary> load(PageKey key) {
+        boolean popular = POPULAR.equals(key.sort());
+        List<PlanSummary> items = popular
+                ? planRepo.findPublicByPopularity(key.beforeViewCount(), key.beforeId(), key.limit())
+                : planRepo.findPublicByRecency(key.beforeId(), key.limit());
+        String nextCursor = null;
+        if (items.size() == key.limit()) {
+            PlanSummary last = items.get(items.size() - 1);
+            nextCursor = popular ? last.getViewCount() + "_" + last.getId() : last.getId();
+        }
+        return new FeedPage<>(List.copyOf(items), nextCursor);
+    }
+
+    private static PageKey key(String sort, String cursor, int limit) {
+        if (!RECENT.equals(sort) && !POPULAR.equals(sort)) throw new IllegalArgumentException("Unknown sort");
+        if (cursor == null || cursor.isEmpty()) return new PageKey(sort, null, null, limit);
+        if (RECENT.equals(sort)) {
+            if (!ObjectId.isValid(cursor)) throw new IllegalArgumentException("Invalid cursor");
+            return new PageKey(sort, null, cursor, limit);
+        }
+        int sep = cursor.indexOf('_');
+        if (sep < 0 || !ObjectId.isValid(cursor.substring(sep + 1))) throw new IllegalArgumentException("Invalid cursor");
+        try {
+            return new PageKey(sort, Long.parseLong(cursor.substring(0, sep)), cursor.substring(sep + 1), limit);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    // A public plan affects a page if it is listed there, or if it sorts after the page's cursor
+    // and no later than its last item (or anywhere after the cursor when the page is not full)
+    private static boolean affects(PageKey key, FeedPage<PlanSummary> page, LearningPlan plan) {
+        if (plan == null || plan.getId() == null) return false;
+        List<PlanSummary> items = page.getItems();
+        if (items.stream().anyMatch(item -> plan.getId().equals(item.getId()))) return true;
+        if (!plan.isPublic()) return false;
+        if (!ObjectId.isValid(plan.getId())) return true; // Unknown position; drop the page to be safe
+
+        boolean popular = POPULAR.equals(key.sort());
+        if (key.beforeId() != null && compare(popular, plan.getViewCount(), plan.getId(), key.beforeViewCount(), key.beforeId()) <= 0) {
+            return false;
+        }
+        if (items.size() < key.limit()) return true;
+        PlanSummary last = items.get(items.size() - 1);
+        return compare(popular, plan.getViewCount(), plan.getId(), last.getViewCount(), last.getId()) <= 0;
+    }
+
+    // Position in the listing order: negative if (viewCount, id) is listed before the other
+    private static int compare(boolean popular, long viewCount, String id, Long otherViewCount, String otherId) {
+        if (popular && viewCount != otherViewCount) return viewCount > otherViewCount ? -1 : 1;
+        return new ObjectId(otherId).compareTo(new ObjectId(id));
+    }
+}
@@ -0,0 +1,190 @@
+package com.skillshare.backend.services;
+
+import com.skillshare.backend.model.LearningPlan;
+import com.skillshare.backend.repository.LearningPlanTagsListener;
+import com.skillshare.backend.responses.TagCount;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory tag counts over all learning plans, for tag autocomplete and facet counts.
+ * Built from Mongo when the application starts, kept current by LearningPlanController on every
+ * create, update and delete, and rebuilt periodically to pick up writes made by other instances.
+ */
+@Service
+public class PlanTagIndex {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${plans.tags.max-results:20}")
+    private int maxResults;
+    @Value("${plans.tags.backfill-batch-size:500}")
+    private int backfillBatchSize;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private TagTrie trie = new TagTrie();
+    private Timer rebuildTimer;
+    private FieldBackfill<LearningPlan> tagBackfill;
+
+    @PostConstruct
+    void init() {
+        tagBackfill = new FieldBackfill<>(mongoTemplate, LearningPlan.class, "normalizedTags", backfillBatchSize,
+                List.of("tags"), LearningPlan::getId,
+                plan -> new Update().set("normalizedTags", LearningPlanTagsListener.normalize(plan.getTags())));
+        Gauge.builder("plans.tags.distinct", this, PlanTagIndex::size)
+                .description("Distinct learning plan tags in the autocomplete index")
+                .register(meterRegistry);
+        rebuildTimer = Timer.builder("plans.tags.rebuild")
+                .description("Time to rebuild the tag index from learning_plans")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    /**
+     * Replaces the index with counts aggregated from learning_plans.
+     * Falls back to the raw tags of plans saved before normalizedTags existed.
+     * A change applied while the aggregation runs can be missed until the next rebuild.
+     */
+    @Scheduled(fixedDelayString = "${plans.tags.rebuild-interval-ms:3600000}",
+            initialDelayString = "${plans.tags.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        Document normalized = new Document("$toLower", new Document("$trim", new Document("input", "$tag")));
+        List<AggregationOperation> stages = List.of(
+                context -> new Document("$project",
+                        new Document("tag", new Document("$ifNull", List.of("$normalizedTags", "$tags")))),
+                context -> new Document("$unwind", "$tag"),
+                context -> new Document("$match", new Document("tag", new Document("$type", "string"))),
+                // Once per plan and tag, then counted per tag
+                context -> new Document("$group", new Document("_id",
+                        new Document("plan", "$_id").append("tag", normalized))),
+                context -> new Document("$group", new Document("_id", "$_id.tag")
+                        .append("count", new Document("$sum", 1))));
+        Aggregation aggregation = Aggregation.newAggregation(stages)
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        rebuildTimer.record(() -> {
+            TagTrie fresh = new TagTrie();
+            try (Stream<Document> counts = mongoTemplate.aggregateStream(aggregation, "learning_plans", Document.class)) {
+                counts.forEach(doc -> fresh.add(doc.getString("_id"), ((Number) doc.get("count")).longValue()));
+            }
+            lock.writeLock().lock();
+            try {
+                trie = fresh;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Applies the difference between a plan's normalized tags before and after a write.
+     * Pass an empty list as before for a new plan and as after for a deleted one.
+     */
+    public void update(Collection<String> before, Collection<String> after) {
+        Set<String> removed = new HashSet<>(before != null ? before : List.of());
+        Set<String> added = new HashSet<>(after != null ? after : List.of());
+        Set<String> unchanged = new HashSet<>(removed);
+        unchanged.retainAll(added);
+        removed.removeAll(unchanged);
+        added.removeAll(unchanged);
+        if (removed.isEmpty() && added.isEmpty()) return;
+
+        lock.writeLock().lock();
+        try {
+            for (String tag : removed) trie.add(tag, -1);
+            for (String tag : added) trie.add(tag, 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Most used tags starting with the given text, matched case-insensitively.
+     */
+    public List<TagCount> autocomplete(String prefix, Integer limit) {
+        return top(LearningPlanTagsListener.normalize(prefix), limit);
+    }
+
+    /**
+     * Most used tags overall, for facet filters.
+     */
+    public List<TagCount> facets(Integer limit) {
+        return top("", limit);
+    }
+
+    /**
+     * Plan counts for specific tags, zero for unknown ones.
+     */
+    public List<TagCount> counts(Collection<String> tags) {
+        List<TagCount> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (String tag : LearningPlanTagsListener.normalize(tags)) result.add(new TagCount(tag, trie.count(tag)));
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return trie.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<TagCount> top(String prefix, Integer limit) {
+        int size = Math.min(Math.max(limit != null ? limit : maxResults, 1), maxResults);
+        lock.readLock().lock();
+        try {
+            return trie.top(prefix, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Fills normalizedTags for plans saved before the field existed, one small batch at a time, until none are left
+    @Scheduled(fixedDelay = 60000, initialDelay = 30000)
+    public void backfillNormalizedTags() {
+        tagBackfill.run();
+    }
+
+    // Whether every plan has normalizedTags, so tag lookups need not also match raw tags
+    public boolean normalizedTagsFilled() {
+        return tagBackfill.isDone();
+    }
+}
@@ -0,0 +1,206 @@
+package com.skillshare.backend.services;
+
+import com.skillshare.backend.model.Post;
+import com.skillshare.backend.repository.PostRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind buffer for post reactions.
+ * Reactions are held in memory, coalesced per (post, user), and flushed to Mongo in one bulk write.
+ * At most maxPending reactions are held; beyond that reactions are written through directly,
+ * unless an older reaction of the same user is still being flushed, in which case the new one is
+ * buffered over it so the older write cannot land last (this can exceed maxPending by one batch).
+ */
+@Service
+public class ReactionBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactionBuffer.class);
+    private static final int STRIPES = 16;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private PostRepository postRepo;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${reactions.buffer.max-pending:50000}")
+    private int maxPending;
+
+    // postId -> userId -> pending reaction, split across stripes to limit lock contention
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final AtomicInteger depth = new AtomicInteger();
+    private Timer flushTimer;
+
+    public ReactionBuffer() {
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new Stripe();
+    }
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("reactions.buffer.depth", depth, AtomicInteger::get)
+                .description("Reactions waiting to be flushed")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("reactions.buffer.flush")
+                .description("Time taken to flush buffered reactions to Mongo")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a reaction. A later reaction from the same user on the same post replaces the earlier one.
+     */
+    public void record(String postId, String userId, String userName, String reaction) {
+        Stripe stripe = stripeFor(postId);
+        stripe.lock.readLock().lock();
+        try {
+            Map<String, PendingReaction> pending = stripe.posts.computeIfAbsent(postId, id -> new ConcurrentHashMap<>());
+            PendingReaction next = new PendingReaction(userName, reaction);
+            // Replacing an already buffered reaction never grows the buffer
+            if (pending.computeIfPresent(userId, (id, old) -> next) != null) return;
+            Map<String, PendingReaction> flushing = stripe.inFlight.get(postId);
+            if (depth.get() < maxPending || (flushing != null && flushing.containsKey(userId))) {
+                if (pending.put(userId, next) == null) depth.incrementAndGet();
+                return;
+            }
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+        // Buffer is full: write through so the amount of unflushed data stays bounded
+        postRepo.setReaction(postId, userId, userName, reaction);
+    }
+
+    /**
+     * Overlays reactions that have not been flushed yet, so users see their own reaction immediately.
+     */
+    public Post applyPending(Post post) {
+        Stripe stripe = stripeFor(post.getId());
+        // Batch being written is applied first so newer pending reactions win
+        overlay(post, stripe.inFlight.get(post.getId()));
+        overlay(post, stripe.posts.get(post.getId()));
+        return post;
+    }
+
+    private void overlay(Post post, Map<String, PendingReaction> pending) {
+        if (pending == null || pending.isEmpty()) return;
+
+        if (post.getReactions() == null) post.setReactions(new HashMap<>());
+        if (post.getReactionUsers() == null) post.setReactionUsers(new HashMap<>());
+        pending.forEach((userId, r) -> {
+            post.getReactions().put(userId, r.reaction());
+            post.getReactionUsers().put(userId, r.userName());
+        });
+    }
+
+    public int getDepth() {
+        return depth.get();
+    }
+
+    @Scheduled(fixedDelayString = "${reactions.buffer.flush-interval-ms:1000}")
+    public void flush() {
+        flushTimer.record(() -> {
+            // One failed bulk write must not hold back the other stripes; its batch is requeued
+            RuntimeException failure = null;
+            for (int i = 0; i < STRIPES; i++) {
+                try {
+                    flushStripe(stripes[i]);
+                } catch (RuntimeException e) {
+                    log.warn("Reaction flush failed for stripe {}, batch requeued", i, e);
+                    if (failure == null) failure = e;
+                    else failure.addSuppressed(e);
+                }
+            }
+            if (failure != null) throw failure;
+        });
+    }
+
+    // Drain anything still buffered before the context closes
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    private void flushStripe(Stripe stripe) {
+        Map<String, Map<String, PendingReaction>> drained;
+        stripe.lock.writeLock().lock();
+        try {
+            if (stripe.posts.isEmpty()) return;
+            drained = stripe.posts;
+            stripe.inFlight = drained;
+            stripe.posts = new ConcurrentHashMap<>();
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+
+        int drainedCount = drained.values().stream().mapToInt(Map::size).sum();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class);
+        drained.forEach((postId, reactions) -> {
+            Update update = new Update();
+            reactions.forEach((userId, r) -> update
+                    .set("reactions." + userId, r.reaction())
+                    .set("reactionUsers." + userId, r.userName()));
+            Object id = ObjectId.isValid(postId) ? new ObjectId(postId) : postId;
+            bulk.updateOne(Query.query(Criteria.where("_id").is(id)), update);
+        });
+
+        try {
+            bulk.execute();
+            depth.addAndGet(-drainedCount);
+        } catch (RuntimeException e) {
+            requeue(stripe, drained);
+            throw e;
+        } finally {
+            stripe.inFlight = Map.of();
+        }
+    }
+
+    // Puts a failed batch back without overwriting reactions recorded since it was drained
+    private void requeue(Stripe stripe, Map<String, Map<String, PendingReaction>> drained) {
+        stripe.lock.readLock().lock();
+        try {
+            drained.forEach((postId, reactions) -> {
+                Map<String, PendingReaction> current = stripe.posts.computeIfAbsent(postId, id -> new ConcurrentHashMap<>());
+                reactions.forEach((userId, r) -> {
+                    if (current.putIfAbsent(userId, r) != null) depth.decrementAndGet();
+                });
+            });
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+    }
+
+    private Stripe stripeFor(String postId) {
+        return stripes[Math.floorMod(postId.hashCode(), STRIPES)];
+    }
+
+    private static class Stripe {
+        // Read lock for recording (many concurrent writers), write lock only to swap the map on flush
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        volatile Map<String, Map<String, PendingReaction>> posts = new ConcurrentHashMap<>();
+        // Batch currently being written, still visible to reads until the bulk write completes
+        volatile Map<String, Map<String, PendingReaction>> inFlight = Map.of();
+    }
+
+    private record PendingReaction(String userName, String reaction) {}
+}
@@ -2,10 +2,22 @@ package com.skillshare.backend.services;
 
 import com.skillshare.backend.model.Story;
 import com.skillshare.backend.repository.StoryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Date;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -13,18 +25,91 @@ import java.util.stream.Collectors;
 @Service
 public class StoryCleanupService {
 
+    public static final long STORY_TTL_MS = 24 * 60 * 60 * 1000;
+
     @Autowired
     private StoryRepository storyRepo;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private MediaStorageService mediaStorage;
+
+    @Value("${stories.cleanup.batch-size:500}")
+    private int batchSize;
+    @Value("${stories.cleanup.orphan-grace-minutes:60}")
+    private long orphanGraceMinutes;
+
+    private final Path uploadDir = Paths.get(System.getProperty("user.dir"), "uploads").normalize();
+
+    private Counter expiredStories;
+    private Counter reclaimedBytes;
+    private Counter orphanFiles;
+
+    @PostConstruct
+    void registerMetrics() {
+        expiredStories = Counter.builder("stories.expired")
+                .description("Stories deleted after expiring")
+                .register(meterRegistry);
+        reclaimedBytes = Counter.builder("stories.reclaimed")
+                .baseUnit("bytes")
+                .description("Disk space freed by deleting story media")
+                .register(meterRegistry);
+        orphanFiles = Counter.builder("stories.orphans.deleted")
+                .description("Media and upload files deleted because nothing references them")
+                .register(meterRegistry);
+    }
 
+    // Deletes expired stories in fixed-size batches through the createdAt index, so memory use is bounded
     @Scheduled(fixedRate = 3600000) // Every 1 hour
     public void removeExpiredStories() {
-        Date now = new Date();
-        List<Story> expired = storyRepo.findAll().stream()
-            .filter(story -> now.getTime() - story.getCreatedAt().getTime() > 24 * 60 * 60 * 1000)
-            .collect(Collectors.toList());
+        Date cutoff = new Date(System.currentTimeMillis() - STORY_TTL_MS);
+        PageRequest firstBatch = PageRequest.of(0, batchSize, Sort.by("createdAt"));
+
+        List<Story> expired;
+        do {
+            expired = storyRepo.findExpired(cutoff, firstBatch);
+            if (expired.isEmpty()) break;
+
+            storyRepo.deleteAllById(expired.stream().map(Story::getId).collect(Collectors.toList()));
+            expiredStories.increment(expired.size());
+            for (Story story : expired) {
+                reclaimedBytes.increment(mediaStorage.release(story.getMediaUrl()));
+            }
+        } while (expired.size() == batchSize);
+    }
+
+    // Removes files nothing points to any more from /media, /media/variants and the legacy uploads folder
+    @Scheduled(fixedRate = 21600000, initialDelay = 600000) // Every 6 hours
+    public void removeOrphanedUploads() {
+        // Skip recent files: the post or story referencing them may not have been saved yet
+        long graceCutoff = System.currentTimeMillis() - orphanGraceMinutes * 60_000;
+        try {
+            MediaStorageService.Swept swept = mediaStorage.removeOrphans(graceCutoff);
+            orphanFiles.increment(swept.files());
+            reclaimedBytes.increment(swept.bytes());
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to sweep media", e);
+        } finally {
+            removeOrphanedLegacyUploads(graceCutoff);
+        }
+    }
+
+    private void removeOrphanedLegacyUploads(long graceCutoff) {
+        if (!Files.isDirectory(uploadDir)) return;
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(uploadDir)) {
+            for (Path file : files) {
+                BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                if (!attrs.isRegularFile() || attrs.lastModifiedTime().toMillis() > graceCutoff) continue;
+                if (storyRepo.existsByMediaUrl("/uploads/" + file.getFileName())) continue;
 
-        if (!expired.isEmpty()) {
-            storyRepo.deleteAll(expired);
+                if (Files.deleteIfExists(file)) {
+                    orphanFiles.increment();
+                    reclaimedBytes.increment(attrs.size());
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to sweep " + uploadDir, e);
         }
     }
 }
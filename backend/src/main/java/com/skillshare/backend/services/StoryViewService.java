@@ -0,0 +1,137 @@
+package com.skillshare.backend.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.skillshare.backend.model.StoryView;
+import com.skillshare.backend.repository.StoryViewRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Records story views in the story_views collection and answers view counts.
+ * A view is an upsert keyed by (story, viewer), so repeated views cost one indexed write and never touch the story.
+ * Owners get an exact count from the index; everyone else gets a HyperLogLog estimate kept in memory per story.
+ */
+@Service
+public class StoryViewService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private StoryViewRepository storyViewRepo;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // storyId -> sketch of its viewers, rebuilt from story_views after eviction or restart
+    private final Cache<String, HyperLogLog> sketches;
+    private Counter uniqueViews;
+    private Counter repeatViews;
+
+    public StoryViewService(@Value("${stories.views.sketch-cache-size:10000}") long cacheSize) {
+        this.sketches = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterAccess(Duration.ofHours(25))
+                .build();
+    }
+
+    @PostConstruct
+    void registerMetrics() {
+        uniqueViews = Counter.builder("stories.views")
+                .tag("result", "new")
+                .description("Story views recorded")
+                .register(meterRegistry);
+        repeatViews = Counter.builder("stories.views")
+                .tag("result", "repeat")
+                .description("Story views recorded")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records that a user viewed a story.
+     *
+     * @return true if this is the viewer's first view of the story.
+     */
+    public boolean recordView(String storyId, String viewerId) {
+        Query byId = Query.query(Criteria.where("_id").is(StoryView.idOf(storyId, viewerId)));
+        Update update = new Update()
+                .setOnInsert("storyId", storyId)
+                .setOnInsert("viewerId", viewerId)
+                .setOnInsert("viewedAt", new Date());
+        boolean first = mongoTemplate.upsert(byId, update, StoryView.class).getUpsertedId() != null;
+        if (first) {
+            uniqueViews.increment();
+            sketch(storyId).add(viewerId);
+        } else {
+            repeatViews.increment();
+        }
+        return first;
+    }
+
+    // Exact number of distinct viewers
+    public long exactCount(String storyId) {
+        return storyViewRepo.countByStoryId(storyId);
+    }
+
+    /**
+     * Exact viewer counts for several stories in one $group over story_views, answered from story_viewers_idx.
+     * Stories without views are missing from the map.
+     */
+    public Map<String, Long> exactCounts(Collection<String> storyIds) {
+        if (storyIds.isEmpty()) return Map.of();
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("storyId").in(storyIds)),
+                Aggregation.group("storyId").count().as("views"));
+        Map<String, Long> counts = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, StoryView.class, Document.class)) {
+            counts.put(row.getString("_id"), ((Number) row.get("views")).longValue());
+        }
+        return counts;
+    }
+
+    // Approximate number of distinct viewers, within a few percent
+    public long approximateCount(String storyId) {
+        return sketch(storyId).estimate();
+    }
+
+    public void deleteViews(String storyId) {
+        storyViewRepo.deleteByStoryId(storyId);
+        sketches.invalidate(storyId);
+    }
+
+    // Loaded outside the cache's internal locks, so the Mongo scan never pins a virtual thread's carrier.
+    // Two concurrent loads of one story both finish; the first one stored wins.
+    private HyperLogLog sketch(String storyId) {
+        HyperLogLog cached = sketches.getIfPresent(storyId);
+        if (cached != null) return cached;
+        HyperLogLog loaded = loadSketch(storyId);
+        HyperLogLog existing = sketches.asMap().putIfAbsent(storyId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private HyperLogLog loadSketch(String storyId) {
+        HyperLogLog sketch = new HyperLogLog();
+        Query query = Query.query(Criteria.where("storyId").is(storyId));
+        query.fields().include("viewerId");
+        try (Stream<StoryView> views = mongoTemplate.stream(query, StoryView.class)) {
+            views.forEach(view -> sketch.add(view.getViewerId()));
+        }
+        return sketch;
+    }
+}
@@ -0,0 +1,118 @@
+package com.skillshare.backend.services;
+
+import com.skillshare.backend.responses.TagCount;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Prefix tree of tags with a count per tag.
+ * Every node also keeps the highest count in its subtree, so the most used tags under a prefix
+ * come out best-first without visiting the rest of the subtree. Not thread-safe; PlanTagIndex guards it.
+ */
+public final class TagTrie {
+
+    private static final class Node {
+        final Map<Character, Node> children = new HashMap<>(4);
+        String tag; // Set while at least one plan carries the tag ending here
+        long count;
+        long best;  // Highest count in this subtree, this node included
+    }
+
+    // Subtree bounds are ranked with the tags they may contain; a tag wins a tie so it is emitted first
+    private record Entry(Node node, boolean terminal) {
+        long priority() {
+            return terminal ? node.count : node.best;
+        }
+    }
+
+    private static final Comparator<Entry> BEST_FIRST = Comparator.comparingLong(Entry::priority).reversed()
+            .thenComparing(Entry::terminal, Comparator.reverseOrder());
+
+    private final Node root = new Node();
+    private int size;
+
+    /**
+     * Adjusts the count of a tag by delta; the tag disappears once its count reaches zero.
+     */
+    public void add(String tag, long delta) {
+        if (tag == null || tag.isEmpty() || delta == 0) return;
+        Node[] path = new Node[tag.length() + 1];
+        path[0] = root;
+        Node node = root;
+        for (int i = 0; i < tag.length(); i++) {
+            Node next = node.children.get(tag.charAt(i));
+            if (next == null) {
+                if (delta < 0) return; // Never counted, nothing to take away
+                next = new Node();
+                node.children.put(tag.charAt(i), next);
+            }
+            node = next;
+            path[i + 1] = node;
+        }
+
+        boolean existed = node.count > 0;
+        node.count = Math.max(0, node.count + delta);
+        node.tag = node.count > 0 ? tag : null;
+        if (existed != node.count > 0) size += existed ? -1 : 1;
+
+        if (delta > 0) {
+            // Growing counts only raise the bounds on the way up
+            for (Node n : path) n.best = Math.max(n.best, node.count);
+            return;
+        }
+        // Shrinking counts need the bounds recomputed, dropping branches left without tags
+        for (int i = path.length - 1; i >= 0; i--) {
+            Node n = path[i];
+            long best = n.count;
+            for (Node child : n.children.values()) best = Math.max(best, child.best);
+            n.best = best;
+            if (i > 0 && best == 0 && n.children.isEmpty()) path[i - 1].children.remove(tag.charAt(i - 1));
+        }
+    }
+
+    public long count(String tag) {
+        Node node = find(tag);
+        return node == null ? 0 : node.count;
+    }
+
+    /**
+     * Up to limit tags starting with prefix, most used first; an empty prefix ranks every tag.
+     */
+    public List<TagCount> top(String prefix, int limit) {
+        List<TagCount> result = new ArrayList<>(Math.min(limit, 64));
+        Node start = find(prefix);
+        if (start == null || start.best == 0 || limit <= 0) return result;
+
+        PriorityQueue<Entry> queue = new PriorityQueue<>(BEST_FIRST);
+        queue.add(new Entry(start, false));
+        while (!queue.isEmpty() && result.size() < limit) {
+            Entry entry = queue.poll();
+            Node node = entry.node();
+            if (entry.terminal()) {
+                result.add(new TagCount(node.tag, node.count));
+                continue;
+            }
+            if (node.count > 0) queue.add(new Entry(node, true));
+            for (Node child : node.children.values()) {
+                if (child.best > 0) queue.add(new Entry(child, false));
+            }
+        }
+        return result;
+    }
+
+    // Number of distinct tags with a non-zero count
+    public int size() {
+        return size;
+    }
+
+    private Node find(String prefix) {
+        Node node = root;
+        for (int i = 0; node != null && i < prefix.length(); i++) node = node.children.get(prefix.charAt(i));
+        return node;
+    }
+}
@@ -0,0 +1,250 @@
+package com.skillshare.backend.services;
+
+import com.skillshare.backend.config.Threads;
+import com.skillshare.backend.model.Post;
+import com.skillshare.backend.model.TimelineEntry;
+import com.skillshare.backend.model.User;
+import com.skillshare.backend.repository.PostRepository;
+import com.skillshare.backend.repository.UserRepository;
+import com.skillshare.backend.responses.FeedPage;
+import com.skillshare.backend.responses.KeysetCursor;
+import com.skillshare.backend.responses.PostSummary;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Precomputed home timelines built by fan-out on write.
+ * A new post's id is written into the timeline of every user who shares one of the author's categories.
+ * Categories with more than maxFanout interested users get a single entry in a shared category bucket
+ * instead, which readers of that category merge in when they read (the pull path).
+ * Fan-out runs on a bounded background pool in batches of users; reading a page is one indexed query
+ * over the reader's buckets plus one query for the post summaries.
+ */
+@Service
+public class TimelineService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private UserRepository userRepo;
+    @Autowired
+    private PostRepository postRepo;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${feed.fanout.max-audience:5000}")
+    private long maxFanout;
+    @Value("${feed.fanout.batch-size:1000}")
+    private int batchSize;
+    @Value("${feed.latest-comments:3}")
+    private int latestComments;
+
+    private final ThreadPoolExecutor workers;
+
+    private Timer buildTimer;
+    private Timer fanoutTimer;
+    private DistributionSummary writeAmplification;
+    private Counter pulledCategories;
+
+    public TimelineService(@Value("${feed.fanout.threads:2}") int threads,
+                           @Value("${feed.fanout.queue-capacity:10000}") int queueCapacity,
+                           @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), Threads.ioThreads("timeline-fanout", virtualThreads));
+    }
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("feed.fanout.queue", workers, w -> w.getQueue().size())
+                .description("Posts waiting to be fanned out")
+                .register(meterRegistry);
+        buildTimer = Timer.builder("feed.build")
+                .description("Time to build one page of a home feed")
+                .register(meterRegistry);
+        fanoutTimer = Timer.builder("feed.fanout")
+                .description("Time to fan one post out to timelines")
+                .register(meterRegistry);
+        writeAmplification = DistributionSummary.builder("feed.fanout.writes")
+                .description("Timeline entries written per post")
+                .register(meterRegistry);
+        pulledCategories = Counter.builder("feed.fanout.pulled")
+                .description("Categories written to a shared bucket because their audience is too large")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Queues fan-out of a newly created post. When the queue is full the post goes to the shared
+     * category buckets right away, so it still reaches its readers through the pull path.
+     */
+    public void publish(Post post) {
+        try {
+            workers.execute(() -> fanoutTimer.record(() -> fanOut(post)));
+        } catch (RejectedExecutionException e) {
+            User author = userRepo.findById(post.getUserId()).orElse(null);
+            List<String> keys = new ArrayList<>();
+            keys.add(userKey(post.getUserId()));
+            if (author != null && author.getCategories() != null) {
+                author.getCategories().forEach(category -> keys.add(categoryKey(category)));
+            }
+            writeAmplification.record(write(post, keys));
+        }
+    }
+
+    /**
+     * One page of a user's home feed, newest first. The cursor has the same format as /api/posts/feed.
+     * Users without categories get the global feed.
+     */
+    public FeedPage<PostSummary> page(String userId, Date beforeCreatedAt, String beforeId, int limit) {
+        return buildTimer.record(() -> {
+            User viewer = userRepo.findById(userId).orElse(null);
+            if (viewer == null || viewer.getCategories() == null || viewer.getCategories().isEmpty()) {
+                List<PostSummary> items = postRepo.findFeedPage(beforeCreatedAt, beforeId, limit, latestComments);
+                PostSummary last = items.size() == limit ? items.get(items.size() - 1) : null;
+                return new FeedPage<>(items, last == null ? null : KeysetCursor.of(last.getCreatedAt(), last.getId()));
+            }
+
+            List<String> keys = new ArrayList<>();
+            keys.add(userKey(userId));
+            viewer.getCategories().forEach(category -> keys.add(categoryKey(category)));
+
+            // A post can sit in more than one of the reader's buckets, so read a little extra, dedupe,
+            // and keep reading after the last raw entry until the page is full or the timeline runs out
+            int batch = limit * 2;
+            Set<String> postIds = new LinkedHashSet<>();
+            TimelineEntry last = null;
+            boolean more = false;
+            Date afterCreatedAt = beforeCreatedAt;
+            String afterId = beforeId;
+            while (true) {
+                List<TimelineEntry> entries = mongoTemplate.find(entryQuery(keys, afterCreatedAt, afterId, batch), TimelineEntry.class);
+                int consumed = 0;
+                for (TimelineEntry entry : entries) {
+                    if (postIds.size() == limit) break;
+                    consumed++;
+                    if (postIds.add(entry.getPostId())) last = entry;
+                }
+                if (postIds.size() == limit) {
+                    // More exists if the raw read came back full, or rows past the page hold a post not on it
+                    more = entries.size() == batch || entries.subList(consumed, entries.size()).stream()
+                            .anyMatch(entry -> !postIds.contains(entry.getPostId()));
+                    break;
+                }
+                if (entries.size() < batch) break; // Reached the oldest entry
+                TimelineEntry lastRaw = entries.get(entries.size() - 1);
+                afterCreatedAt = lastRaw.getCreatedAt();
+                afterId = lastRaw.getPostId();
+            }
+            // Entries of deleted posts are dropped here and expire with the TTL index
+            List<PostSummary> items = postRepo.findSummaries(new ArrayList<>(postIds), latestComments);
+            String nextCursor = more ? KeysetCursor.of(last.getCreatedAt(), last.getPostId()) : null;
+            return new FeedPage<>(items, nextCursor);
+        });
+    }
+
+    // Entries of the reader's buckets older than a (createdAt, postId) keyset, newest first
+    private static Query entryQuery(List<String> keys, Date beforeCreatedAt, String beforeId, int limit) {
+        Criteria criteria = Criteria.where("ownerKey").in(keys);
+        if (beforeCreatedAt != null && beforeId != null) {
+            criteria.orOperator(
+                    Criteria.where("createdAt").lt(beforeCreatedAt),
+                    Criteria.where("createdAt").is(beforeCreatedAt).and("postId").lt(beforeId));
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "postId"))
+                .limit(limit);
+        query.fields().include("postId", "createdAt");
+        return query;
+    }
+
+    private void fanOut(Post post) {
+        long written = write(post, List.of(userKey(post.getUserId())));
+        User author = userRepo.findById(post.getUserId()).orElse(null);
+        if (author != null && author.getCategories() != null) {
+            for (String category : new LinkedHashSet<>(author.getCategories())) {
+                if (userRepo.countByCategories(category) > maxFanout) {
+                    pulledCategories.increment();
+                    written += write(post, List.of(categoryKey(category)));
+                } else {
+                    written += pushToAudience(post, category);
+                }
+            }
+        }
+        writeAmplification.record(written);
+    }
+
+    // Walks the category's users in _id order, one batch of ids at a time
+    private long pushToAudience(Post post, String category) {
+        long written = 0;
+        ObjectId after = null;
+        List<User> batch;
+        do {
+            Criteria criteria = Criteria.where("categories").is(category);
+            if (after != null) criteria.and("_id").gt(after);
+            Query query = Query.query(criteria).with(Sort.by("_id")).limit(batchSize);
+            query.fields().include("_id");
+            batch = mongoTemplate.find(query, User.class);
+            if (batch.isEmpty()) break;
+
+            List<String> keys = new ArrayList<>(batch.size());
+            for (User user : batch) {
+                if (!user.getId().equals(post.getUserId())) keys.add(userKey(user.getId()));
+            }
+            written += write(post, keys);
+            String lastId = batch.get(batch.size() - 1).getId();
+            if (!ObjectId.isValid(lastId)) break; // User ids are generated ObjectIds; anything else can't be paged past
+            after = new ObjectId(lastId);
+        } while (batch.size() == batchSize);
+        return written;
+    }
+
+    // Upserts keep fan-out idempotent when a user shares several categories with the author
+    private long write(Post post, List<String> ownerKeys) {
+        if (ownerKeys.isEmpty()) return 0;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TimelineEntry.class);
+        for (String ownerKey : ownerKeys) {
+            Update update = new Update()
+                    .setOnInsert("authorId", post.getUserId())
+                    .setOnInsert("createdAt", post.getCreatedAt());
+            bulk.upsert(Query.query(Criteria.where("ownerKey").is(ownerKey).and("postId").is(post.getId())), update);
+        }
+        return bulk.execute().getUpserts().size();
+    }
+
+    private static String userKey(String userId) {
+        return "u:" + userId;
+    }
+
+    private static String categoryKey(String category) {
+        return "c:" + category;
+    }
+}
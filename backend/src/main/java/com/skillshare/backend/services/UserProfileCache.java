@@ -0,0 +1,97 @@
+package com.skillshare.backend.services;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.skillshare.backend.model.User;
+import com.skillshare.backend.repository.UserRepository;
+import com.skillshare.backend.responses.UserSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Size-bounded cache of public author profiles (name and picture) by user id.
+ * Misses for a whole feed page are loaded with a single findAllById.
+ * AuthController invalidates entries when a profile changes.
+ */
+@Service
+public class UserProfileCache {
+
+    // Stored for ids that don't exist, so repeated lookups of deleted users stay cheap
+    private static final UserSummary MISSING = new UserSummary();
+
+    @Autowired
+    private UserRepository userRepo;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final LoadingCache<String, UserSummary> profiles;
+
+    public UserProfileCache(@Value("${profiles.cache.max-size:100000}") long maxSize,
+                            @Value("${profiles.cache.ttl-minutes:30}") long ttlMinutes) {
+        this.profiles = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build(new CacheLoader<>() {
+                    @Override
+                    public UserSummary load(String id) {
+                        return userRepo.findById(id).map(UserProfileCache::toSummary).orElse(MISSING);
+                    }
+
+                    @Override
+                    public Map<String, UserSummary> loadAll(Set<? extends String> ids) {
+                        Map<String, UserSummary> loaded = new HashMap<>();
+                        for (User user : userRepo.findAllById(List.copyOf(ids))) loaded.put(user.getId(), toSummary(user));
+                        for (String id : ids) loaded.putIfAbsent(id, MISSING);
+                        return loaded;
+                    }
+                });
+    }
+
+    // Hit/miss ratio, evictions and load latency as cache.* meters tagged cache=userProfiles
+    @PostConstruct
+    void registerMetrics() {
+        CaffeineCacheMetrics.monitor(meterRegistry, profiles, "userProfiles");
+    }
+
+    public Optional<UserSummary> get(String id) {
+        if (id == null) return Optional.empty();
+        // getAll loads outside the cache's internal locks, so a Mongo call never pins a virtual thread's carrier
+        UserSummary profile = profiles.getAll(List.of(id)).get(id);
+        return profile == MISSING ? Optional.empty() : Optional.of(profile);
+    }
+
+    /**
+     * Looks up many profiles at once; unknown ids are left out of the result.
+     */
+    public Map<String, UserSummary> getAll(Collection<String> ids) {
+        Map<String, UserSummary> result = new HashMap<>(profiles.getAll(ids));
+        result.values().removeIf(profile -> profile == MISSING);
+        return result;
+    }
+
+    public String displayName(String id) {
+        return get(id).map(UserSummary::getName).orElse("Anonymous");
+    }
+
+    public void invalidate(String id) {
+        if (id != null) profiles.invalidate(id);
+    }
+
+    private static UserSummary toSummary(User user) {
+        return new UserSummary(user.getId(), user.getName(), user.getLastName(), user.getProfilePic());
+    }
+}
@@ -0,0 +1,135 @@
+package com.skillshare.backend.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.skillshare.backend.model.User;
+import com.skillshare.backend.repository.UserSearchKeysListener;
+import com.skillshare.backend.responses.UserSummary;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Prefix search over users through the indexed User.searchKeys field.
+ * Recent prefixes are cached briefly; when a shorter prefix already returned every match,
+ * longer prefixes typed after it are answered from that result without a query.
+ * The query has no sort, so MongoDB stops after limit entries of the searchKeys index range
+ * instead of sorting every match; the page is ranked in memory by the smallest key that
+ * matches the prefix and then id, the order that index range is read in.
+ */
+@Service
+public class UserSearchService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${search.users.max-results:20}")
+    private int maxResults;
+    @Value("${search.users.backfill-batch-size:500}")
+    private int backfillBatchSize;
+
+    private final Cache<String, CachedResult> recentPrefixes;
+    private FieldBackfill<User> searchKeyBackfill;
+
+    public UserSearchService(@Value("${search.users.cache-size:10000}") long cacheSize,
+                             @Value("${search.users.cache-ttl-seconds:30}") long cacheTtlSeconds) {
+        this.recentPrefixes = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .build();
+    }
+
+    @PostConstruct
+    void createBackfill() {
+        searchKeyBackfill = new FieldBackfill<>(mongoTemplate, User.class, "searchKeys", backfillBatchSize,
+                List.of("name", "lastName", "email"), User::getId,
+                user -> new Update().set("searchKeys", UserSearchKeysListener.searchKeys(user)));
+    }
+
+    public List<UserSummary> search(String text, Integer limit) {
+        String prefix = text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+        if (prefix.isEmpty()) return List.of();
+        int size = Math.min(Math.max(limit != null ? limit : maxResults, 1), maxResults);
+
+        CachedResult result = recentPrefixes.getIfPresent(prefix);
+        if (result == null) result = narrowFromShorterPrefix(prefix);
+        if (result == null) {
+            result = query(prefix);
+            recentPrefixes.put(prefix, result);
+        }
+        return result.matches().stream().limit(size).map(Match::summary).collect(Collectors.toList());
+    }
+
+    // Reuses a cached shorter prefix if it was complete, i.e. held every matching user
+    private CachedResult narrowFromShorterPrefix(String prefix) {
+        for (int len = prefix.length() - 1; len > 0; len--) {
+            CachedResult shorter = recentPrefixes.getIfPresent(prefix.substring(0, len));
+            if (shorter == null) continue;
+            if (!shorter.complete()) return null;
+
+            List<Match> narrowed = shorter.matches().stream()
+                    .filter(m -> m.keys().stream().anyMatch(k -> k.startsWith(prefix)))
+                    .sorted(rank(prefix))
+                    .collect(Collectors.toList());
+            CachedResult result = new CachedResult(narrowed, true);
+            recentPrefixes.put(prefix, result);
+            return result;
+        }
+        return null;
+    }
+
+    private CachedResult query(String prefix) {
+        Query query = Query.query(Criteria.where("searchKeys").regex("^" + escapeRegex(prefix)))
+                .limit(maxResults + 1);
+        query.fields().include("name", "lastName", "profilePic", "searchKeys");
+
+        List<Match> matches = mongoTemplate.find(query, User.class).stream()
+                .map(u -> new Match(new UserSummary(u.getId(), u.getName(), u.getLastName(), u.getProfilePic()),
+                        u.getSearchKeys() != null ? u.getSearchKeys() : List.of()))
+                .sorted(rank(prefix))
+                .collect(Collectors.toList());
+        boolean complete = matches.size() <= maxResults;
+        return new CachedResult(complete ? matches : matches.subList(0, maxResults), complete);
+    }
+
+    // Same order for queried and narrowed pages, so a prefix shows the same users either way
+    private static Comparator<Match> rank(String prefix) {
+        return Comparator.comparing((Match m) -> m.firstKey(prefix)).thenComparing(m -> m.summary().getId());
+    }
+
+    // Escapes regex metacharacters so the pattern stays a plain, index-friendly prefix
+    private static String escapeRegex(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (char c : text.toCharArray()) {
+            if ("\\^$.|?*+()[]{}".indexOf(c) >= 0) sb.append('\\');
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    // Fills searchKeys for users saved before the field existed, one small batch at a time, until none are left
+    @Scheduled(fixedDelay = 60000, initialDelay = 30000)
+    public void backfillSearchKeys() {
+        searchKeyBackfill.run();
+    }
+
+    private record Match(UserSummary summary, List<String> keys) {
+        String firstKey(String prefix) {
+            return keys.stream().filter(k -> k.startsWith(prefix)).min(Comparator.naturalOrder()).orElse("");
+        }
+    }
+
+    private record CachedResult(List<Match> matches, boolean complete) {}
+}
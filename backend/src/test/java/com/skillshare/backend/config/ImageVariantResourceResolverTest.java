@@ -0,0 +1,86 @@
+package com.skillshare.backend.config;
+
+import com.skillshare.backend.services.ImageVariantService;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.resource.HttpResource;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ImageVariantResourceResolverTest {
+
+    private static final String NAME = "ab12.jpg";
+
+    private final ImageVariantService imageVariants = mock(ImageVariantService.class);
+    private final ImageVariantResourceResolver resolver = new ImageVariantResourceResolver(imageVariants);
+
+    @Test
+    void servesAnExistingVariantAsImmutable() {
+        when(imageVariants.pickWidth(300)).thenReturn(320);
+
+        Resource served = resolve(300, Map.of(NAME, "original", "variants/ab12_w320.jpg", "variant"));
+
+        assertThat(served.getDescription()).contains("[variant]");
+        assertThat(cacheControl(served)).isEqualTo(ImageVariantResourceResolver.IMMUTABLE);
+    }
+
+    @Test
+    void revalidatesTheOriginalWhileItsVariantIsPending() {
+        when(imageVariants.pickWidth(300)).thenReturn(320);
+        when(imageVariants.variantNeverExists(NAME, 300)).thenReturn(false);
+
+        Resource served = resolve(300, Map.of(NAME, "original"));
+
+        assertThat(served.getDescription()).contains("[original]");
+        assertThat(cacheControl(served)).isEqualTo(ImageVariantResourceResolver.REVALIDATE);
+    }
+
+    @Test
+    void cachesTheOriginalForGoodWhenNoVariantWillEverExist() {
+        when(imageVariants.pickWidth(4000)).thenReturn(-1);
+        when(imageVariants.variantNeverExists(NAME, 4000)).thenReturn(true);
+
+        Resource served = resolve(4000, Map.of(NAME, "original"));
+
+        assertThat(served.getDescription()).contains("[original]");
+        assertThat(cacheControl(served)).isEqualTo(ImageVariantResourceResolver.IMMUTABLE);
+    }
+
+    @Test
+    void leavesRequestsWithoutAWidthToTheFilter() {
+        Resource served = resolve(null, Map.of(NAME, "original"));
+
+        assertThat(served).isNotInstanceOf(HttpResource.class);
+    }
+
+    private Resource resolve(Integer width, Map<String, String> files) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/media/" + NAME);
+        if (width != null) request.setParameter("w", width.toString());
+        ResourceResolverChain chain = new ResourceResolverChain() {
+            @Override
+            public Resource resolveResource(jakarta.servlet.http.HttpServletRequest r, String path,
+                                            List<? extends Resource> locations) {
+                String description = files.get(path);
+                return description == null ? null : new ByteArrayResource(new byte[0], description);
+            }
+
+            @Override
+            public String resolveUrlPath(String resourcePath, List<? extends Resource> locations) {
+                return resourcePath;
+            }
+        };
+        return resolver.resolveResource(request, NAME, List.of(), chain);
+    }
+
+    private static String cacheControl(Resource resource) {
+        return ((HttpResource) resource).getResponseHeaders().getCacheControl();
+    }
+}
@@ -0,0 +1,51 @@
+package com.skillshare.backend.responses;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class KeysetCursorTest {
+
+    @Test
+    void roundTripsTimeAndId() {
+        ObjectId id = new ObjectId();
+        String text = KeysetCursor.of(new Date(1_700_000_000_123L), id);
+
+        KeysetCursor cursor = KeysetCursor.parse(text);
+
+        assertThat(text).isEqualTo("1700000000123_" + id.toHexString());
+        assertThat(cursor.time()).isEqualTo(new Date(1_700_000_000_123L));
+        assertThat(cursor.objectId()).isEqualTo(id);
+    }
+
+    @Test
+    void missingCursorMeansFirstPage() {
+        assertThat(KeysetCursor.parse(null)).isNull();
+        assertThat(KeysetCursor.parse("")).isNull();
+    }
+
+    @Test
+    void keepsUnderscoresInTheId() {
+        assertThat(KeysetCursor.parse("5_a_b").id()).isEqualTo("a_b");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"abc", "_64b7f0", "1700000000123", "1700000000123_", "soon_64b7f0", "1.5_64b7f0"})
+    void rejectsMalformedCursors(String text) {
+        assertThatIllegalArgumentException().isThrownBy(() -> KeysetCursor.parse(text));
+    }
+
+    @Test
+    void rejectsNonObjectIdWhereOneIsRequired() {
+        KeysetCursor cursor = KeysetCursor.parse("1700000000123_not-an-id");
+
+        assertThat(cursor.id()).isEqualTo("not-an-id");
+        assertThatIllegalArgumentException().isThrownBy(cursor::objectId);
+    }
+}
@@ -0,0 +1,83 @@
+package com.skillshare.backend.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final TokenBucketLimiter limiter = new TokenBucketLimiter(1000, Duration.ofMinutes(10));
+
+    @Test
+    void allowsAFullBurstThenRefusesWithTheWaitForOneToken() {
+        long now = 5 * SECOND;
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire("ip:1", 10, 2.0, now)).as("request %d", i).isZero();
+        }
+
+        assertThat(limiter.tryAcquire("ip:1", 10, 2.0, now)).isEqualTo(SECOND / 2);
+    }
+
+    @Test
+    void refillsAtTheConfiguredRate() {
+        long now = 5 * SECOND;
+        for (int i = 0; i < 10; i++) limiter.tryAcquire("ip:1", 10, 2.0, now);
+
+        // Half a second at 2/s gives back exactly one token
+        assertThat(limiter.tryAcquire("ip:1", 10, 2.0, now + SECOND / 2)).isZero();
+        assertThat(limiter.tryAcquire("ip:1", 10, 2.0, now + SECOND / 2)).isPositive();
+        // Idle time never stores more than a full bucket
+        long later = now + 60 * SECOND;
+        for (int i = 0; i < 10; i++) assertThat(limiter.tryAcquire("ip:1", 10, 2.0, later)).isZero();
+        assertThat(limiter.tryAcquire("ip:1", 10, 2.0, later)).isPositive();
+    }
+
+    @Test
+    void keepsASeparateBucketPerKey() {
+        long now = SECOND;
+        limiter.tryAcquire("user:a", 1, 1.0, now);
+
+        assertThat(limiter.tryAcquire("user:a", 1, 1.0, now)).isPositive();
+        assertThat(limiter.tryAcquire("user:b", 1, 1.0, now)).isZero();
+        assertThat(limiter.size()).isEqualTo(2);
+    }
+
+    @Test
+    void neverGrantsMoreThanTheBurstUnderContention() throws Exception {
+        long now = SECOND;
+        int threads = 32;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> granted = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                granted.add(pool.submit(() -> {
+                    start.await();
+                    int allowed = 0;
+                    for (int i = 0; i < 100; i++) {
+                        if (limiter.tryAcquire("hot", 50, 10.0, now) == 0) allowed++;
+                    }
+                    return allowed;
+                }));
+            }
+            start.countDown();
+
+            int total = 0;
+            for (Future<Integer> f : granted) total += f.get(30, TimeUnit.SECONDS);
+            assertThat(total).isEqualTo(50);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.skillshare.backend.services;
+
+import com.skillshare.backend.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FieldBackfillTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final FieldBackfill<User> backfill = new FieldBackfill<>(mongoTemplate, User.class, "searchKeys", 2,
+            List.of("name"), User::getId, user -> new Update().set("searchKeys", List.of(user.getName())));
+
+    @Test
+    void fillsOneBatchPerRun() {
+        when(mongoTemplate.find(any(Query.class), eq(User.class))).thenReturn(List.of(user("a"), user("b")));
+
+        backfill.run();
+
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(User.class));
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), any(Update.class), eq(User.class));
+        assertThat(backfill.isDone()).isFalse();
+    }
+
+    @Test
+    void stopsQueryingOnceARunFindsNothing() {
+        when(mongoTemplate.find(any(Query.class), eq(User.class))).thenReturn(List.of());
+
+        backfill.run();
+        backfill.run();
+        backfill.run();
+
+        assertThat(backfill.isDone()).isTrue();
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(User.class));
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(User.class));
+    }
+
+    @Test
+    void leavesDocumentsThatGotTheFieldMeanwhileAlone() {
+        when(mongoTemplate.find(any(Query.class), eq(User.class))).thenReturn(List.of(user("a")));
+
+        backfill.run();
+
+        verify(mongoTemplate).updateFirst(argThat((Query query) ->
+                query.getQueryObject().containsKey("searchKeys")), any(Update.class), eq(User.class));
+    }
+
+    private static User user(String id) {
+        User user = new User();
+        user.setId(id);
+        user.setName(id);
+        return user;
+    }
+}
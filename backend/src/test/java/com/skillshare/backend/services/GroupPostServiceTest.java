@@ -0,0 +1,102 @@
+package com.skillshare.backend.services;
+
+import com.skillshare.backend.model.GroupPost;
+import com.skillshare.backend.repository.GroupPostRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GroupPostServiceTest {
+
+    private final GroupPostRepository repo = mock(GroupPostRepository.class);
+    private final AtomicLong nanos = new AtomicLong();
+    private GroupPostService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new GroupPostService(100, 3, 60, nanos::get);
+        ReflectionTestUtils.setField(service, "postRepo", repo);
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+    }
+
+    @Test
+    void insertsANewPostAtTheHeadAndTrimsThePage() {
+        List<GroupPost> page = List.of(post("c", 30), post("b", 20), post("a", 10));
+
+        List<GroupPost> updated = service.withPost(page, post("d", 40));
+
+        assertThat(ids(updated)).containsExactly("d", "c", "b");
+    }
+
+    @Test
+    void placesALateFinishingWriteByItsCreatedAt() {
+        List<GroupPost> page = List.of(post("c", 30), post("a", 10));
+
+        assertThat(ids(service.withPost(page, post("b", 20)))).containsExactly("c", "b", "a");
+        assertThat(ids(service.withPost(List.of(post("c", 30), post("b", 20), post("a", 10)), post("old", 5))))
+                .containsExactly("c", "b", "a");
+    }
+
+    @Test
+    void breaksCreatedAtTiesByIdNewestFirst() {
+        String low = new ObjectId(new Date(1_000), 1).toHexString();
+        String high = new ObjectId(new Date(1_000), 2).toHexString();
+        List<GroupPost> page = List.of(post(low, 50));
+
+        assertThat(ids(service.withPost(page, post(high, 50)))).containsExactly(high, low);
+    }
+
+    @Test
+    void servesTheCachedFirstPageAndUpdatesItOnPublish() {
+        when(repo.findByGroupId(eq("g1"), any(Pageable.class))).thenReturn(List.of(post("b", 20), post("a", 10)));
+        when(repo.insert(any(GroupPost.class))).thenAnswer(call -> call.getArgument(0));
+
+        service.page("g1", null, null, 3);
+        service.publish(post("c", 30));
+
+        assertThat(ids(service.page("g1", null, null, 3).getItems())).containsExactly("c", "b", "a");
+        verify(repo, times(1)).findByGroupId(eq("g1"), any(Pageable.class));
+    }
+
+    @Test
+    void reloadsTheFirstPageAfterItsMaxAgeEvenWhilePostsArrive() {
+        when(repo.findByGroupId(eq("g1"), any(Pageable.class))).thenReturn(List.of(post("a", 10)));
+        when(repo.insert(any(GroupPost.class))).thenAnswer(call -> call.getArgument(0));
+
+        service.page("g1", null, null, 3);
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(40));
+        service.publish(post("b", 20));
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(40));
+        service.page("g1", null, null, 3);
+
+        verify(repo, times(2)).findByGroupId(eq("g1"), any(Pageable.class));
+    }
+
+    private static GroupPost post(String id, long createdAt) {
+        GroupPost post = new GroupPost();
+        post.setId(id);
+        post.setGroupId("g1");
+        post.setCreatedAt(new Date(createdAt));
+        return post;
+    }
+
+    private static List<String> ids(List<GroupPost> posts) {
+        return posts.stream().map(GroupPost::getId).toList();
+    }
+}
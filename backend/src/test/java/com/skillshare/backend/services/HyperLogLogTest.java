@@ -0,0 +1,52 @@
+package com.skillshare.backend.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class HyperLogLogTest {
+
+    @Test
+    void emptySketchCountsZero() {
+        assertThat(new HyperLogLog().estimate()).isZero();
+    }
+
+    @Test
+    void smallCountsAreNearlyExact() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 500; i++) sketch.add("viewer-" + i);
+
+        assertThat(sketch.estimate()).isCloseTo(500, within(10L));
+    }
+
+    @Test
+    void largeCountsStayWithinFourStandardErrors() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 1_000_000; i++) sketch.add(Integer.toHexString(i * 31 + 7));
+
+        assertThat(sketch.estimate()).isCloseTo(1_000_000, within(65_000L));
+    }
+
+    @Test
+    void repeatedItemsAreCountedOnce() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 2000; i++) sketch.add("viewer-" + i);
+        }
+
+        assertThat(sketch.estimate()).isCloseTo(2000, within(80L));
+    }
+
+    @Test
+    void concurrentAddsGiveTheSameSketchAsSequentialOnes() {
+        HyperLogLog sequential = new HyperLogLog();
+        HyperLogLog concurrent = new HyperLogLog();
+        for (int i = 0; i < 200_000; i++) sequential.add("u" + i);
+        IntStream.range(0, 200_000).parallel().forEach(i -> concurrent.add("u" + i));
+
+        assertThat(concurrent.estimate()).isEqualTo(sequential.estimate());
+    }
+}
@@ -0,0 +1,223 @@
+package com.skillshare.backend.services;
+
+import com.skillshare.backend.model.Post;
+import com.skillshare.backend.repository.PostRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Reactions recorded while the buffer is flushed, full, or failing must still leave each user's last reaction stored.
+ * Mongo is replaced by a map of the post's reactions; each bulk write or single update applies to it atomically.
+ */
+class ReactionBufferTest {
+
+    private static final String POST_ID = new ObjectId().toHexString();
+
+    private final Map<String, String> stored = new HashMap<>();
+    private final AtomicInteger bulkWrites = new AtomicInteger();
+    // Set by a test to make bulk writes fail, or to hold them in flight until released
+    private volatile boolean failBulkWrites;
+    private volatile CountDownLatch bulkStarted;
+    private volatile CountDownLatch releaseBulk;
+
+    @Test
+    void noReactionIsLostWhenFiveHundredUsersReactAtOnce() throws Exception {
+        int users = 500;
+        int reactionsPerUser = 20;
+        ReactionBuffer buffer = buffer(users / 4);
+        AtomicBoolean done = new AtomicBoolean();
+        Thread flusher = new Thread(() -> {
+            while (!done.get()) {
+                failBulkWrites = ThreadLocalRandom.current().nextInt(3) == 0;
+                try {
+                    buffer.flush();
+                } catch (RuntimeException expected) {
+                    // Failed batches are requeued and retried on the next flush
+                }
+            }
+        });
+        flusher.start();
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(users);
+        try {
+            List<Future<?>> running = new ArrayList<>();
+            for (int u = 0; u < users; u++) {
+                String userId = "user-" + u;
+                running.add(pool.submit(() -> {
+                    start.await();
+                    for (int r = 0; r < reactionsPerUser; r++) {
+                        buffer.record(POST_ID, userId, userId, "r" + r);
+                        // Spread each user's clicks over several flushes
+                        LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(1_000_000));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : running) f.get(60, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+            done.set(true);
+            flusher.join();
+        }
+        failBulkWrites = false;
+        buffer.flush();
+
+        assertThat(buffer.getDepth()).isZero();
+        assertThat(stored).hasSize(users);
+        assertThat(stored).allSatisfy((userId, reaction) -> assertThat(reaction).isEqualTo("r" + (reactionsPerUser - 1)));
+    }
+
+    @Test
+    void reactionRecordedWhileFullDoesNotLoseToTheBatchInFlight() throws Exception {
+        ReactionBuffer buffer = buffer(1);
+        buffer.record(POST_ID, "u1", "Amal", "👍");
+
+        CompletableFuture<Void> flush = flushHeldInFlight(buffer);
+        buffer.record(POST_ID, "u1", "Amal", "❤️"); // Buffer is full and the older reaction is being written
+        releaseBulk.countDown();
+        flush.get(10, TimeUnit.SECONDS);
+        buffer.flush();
+
+        assertThat(stored).containsEntry("u1", "❤️");
+    }
+
+    @Test
+    void reactionRecordedWhileFullDoesNotLoseToARequeuedBatch() throws Exception {
+        ReactionBuffer buffer = buffer(1);
+        buffer.record(POST_ID, "u1", "Amal", "👍");
+
+        failBulkWrites = true;
+        CompletableFuture<Void> flush = flushHeldInFlight(buffer);
+        buffer.record(POST_ID, "u1", "Amal", "❤️");
+        releaseBulk.countDown();
+        assertThat(flush).failsWithin(10, TimeUnit.SECONDS);
+        failBulkWrites = false;
+        buffer.flush();
+
+        assertThat(stored).containsEntry("u1", "❤️");
+        assertThat(buffer.getDepth()).isZero();
+    }
+
+    @Test
+    void aFailedStripeDoesNotStopTheOthersFromFlushing() {
+        ReactionBuffer buffer = buffer(1000);
+        for (int i = 0; i < 64; i++) buffer.record(new ObjectId().toHexString(), "u" + i, "User", "👍");
+        failBulkWrites = true;
+
+        assertThatIllegalStateException().isThrownBy(buffer::flush);
+
+        // Every stripe with reactions was attempted, and every reaction is still buffered for the retry
+        assertThat(bulkWrites.get()).isGreaterThan(1);
+        assertThat(buffer.getDepth()).isEqualTo(64);
+        failBulkWrites = false;
+        buffer.flush();
+        assertThat(stored).hasSize(64);
+        assertThat(buffer.getDepth()).isZero();
+    }
+
+    @Test
+    void pendingReactionsAreVisibleBeforeTheyAreFlushed() {
+        ReactionBuffer buffer = buffer(100);
+        buffer.record(POST_ID, "u1", "Amal", "👍");
+        buffer.record(POST_ID, "u1", "Amal", "❤️");
+        Post post = new Post();
+        post.setId(POST_ID);
+
+        buffer.applyPending(post);
+
+        assertThat(post.getReactions()).containsEntry("u1", "❤️");
+        assertThat(post.getReactionUsers()).containsEntry("u1", "Amal");
+        assertThat(buffer.getDepth()).isEqualTo(1);
+        assertThat(stored).isEmpty();
+    }
+
+    // Starts a flush on another thread and returns once its bulk write is in flight
+    private CompletableFuture<Void> flushHeldInFlight(ReactionBuffer buffer) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        releaseBulk = new CountDownLatch(1);
+        bulkStarted = started;
+        CompletableFuture<Void> flush = CompletableFuture.runAsync(buffer::flush);
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+        return flush;
+    }
+
+    private ReactionBuffer buffer(int maxPending) {
+        PostRepository postRepo = mock(PostRepository.class);
+        when(postRepo.setReaction(anyString(), anyString(), anyString(), anyString())).thenAnswer(call -> {
+            synchronized (stored) {
+                stored.put(call.getArgument(1), call.getArgument(3));
+            }
+            return true;
+        });
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), any(Class.class))).thenAnswer(call -> bulkOps());
+
+        ReactionBuffer buffer = new ReactionBuffer();
+        ReflectionTestUtils.setField(buffer, "postRepo", postRepo);
+        ReflectionTestUtils.setField(buffer, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(buffer, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(buffer, "maxPending", maxPending);
+        buffer.registerMetrics();
+        return buffer;
+    }
+
+    // Collects the $set updates of one bulk write and applies them together on execute
+    private BulkOperations bulkOps() {
+        List<Document> sets = new ArrayList<>();
+        return (BulkOperations) Proxy.newProxyInstance(BulkOperations.class.getClassLoader(),
+                new Class<?>[]{BulkOperations.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "updateOne" -> {
+                        sets.add(((UpdateDefinition) args[1]).getUpdateObject().get("$set", Document.class));
+                        yield proxy;
+                    }
+                    case "execute" -> {
+                        bulkWrites.incrementAndGet();
+                        CountDownLatch started = bulkStarted;
+                        if (started != null) {
+                            bulkStarted = null;
+                            started.countDown();
+                            releaseBulk.await();
+                        }
+                        if (failBulkWrites) throw new IllegalStateException("bulk write failed");
+                        synchronized (stored) {
+                            sets.forEach(set -> set.forEach((field, value) -> {
+                                if (field.startsWith("reactions.")) stored.put(field.substring("reactions.".length()), (String) value);
+                            }));
+                        }
+                        yield null;
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
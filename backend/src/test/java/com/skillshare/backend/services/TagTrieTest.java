@@ -0,0 +1,99 @@
+package com.skillshare.backend.services;
+
+import com.skillshare.backend.responses.TagCount;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TagTrieTest {
+
+    private final TagTrie trie = new TagTrie();
+
+    @Test
+    void ranksTagsUnderAPrefixMostUsedFirst() {
+        trie.add("java", 5);
+        trie.add("javascript", 9);
+        trie.add("jav", 1);
+        trie.add("python", 20);
+
+        assertThat(names(trie.top("jav", 10))).containsExactly("javascript", "java", "jav");
+        assertThat(names(trie.top("java", 2))).containsExactly("javascript", "java");
+        assertThat(names(trie.top("", 2))).containsExactly("python", "javascript");
+        assertThat(trie.top("rust", 10)).isEmpty();
+        assertThat(trie.top("jav", 0)).isEmpty();
+    }
+
+    @Test
+    void dropsTagsWhoseCountReachesZero() {
+        trie.add("spring", 2);
+        trie.add("springboot", 1);
+
+        trie.add("spring", -2);
+
+        assertThat(trie.count("spring")).isZero();
+        assertThat(names(trie.top("spring", 10))).containsExactly("springboot");
+        assertThat(trie.size()).isEqualTo(1);
+
+        trie.add("springboot", -1);
+        assertThat(trie.top("", 10)).isEmpty();
+        assertThat(trie.size()).isZero();
+    }
+
+    @Test
+    void lowersSubtreeBoundsWhenTheBestTagShrinks() {
+        trie.add("react", 10);
+        trie.add("redux", 4);
+        trie.add("angular", 6);
+
+        trie.add("react", -9);
+
+        assertThat(trie.top("", 3)).extracting(TagCount::getTag).containsExactly("angular", "redux", "react");
+    }
+
+    @Test
+    void ignoresRemovalsOfUnknownTagsAndNeverGoesNegative() {
+        trie.add("go", 1);
+        trie.add("golang", -3);
+        trie.add("go", -5);
+
+        assertThat(trie.count("go")).isZero();
+        assertThat(trie.count("golang")).isZero();
+        assertThat(trie.size()).isZero();
+    }
+
+    @Test
+    void matchesASortOfEveryTag() {
+        Random random = new Random(11);
+        Map<String, Long> counts = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            String tag = "t" + Integer.toString(random.nextInt(400), 4);
+            long delta = random.nextInt(5) == 0 ? -1 : 1;
+            trie.add(tag, delta);
+            counts.put(tag, Math.max(0, counts.getOrDefault(tag, 0L) + delta));
+        }
+        counts.values().removeIf(c -> c == 0);
+
+        for (String prefix : List.of("", "t", "t1", "t12", "t30")) {
+            List<TagCount> top = trie.top(prefix, 15);
+            List<Long> expected = counts.entrySet().stream()
+                    .filter(e -> e.getKey().startsWith(prefix))
+                    .map(Map.Entry::getValue)
+                    .sorted((a, b) -> Long.compare(b, a))
+                    .limit(15)
+                    .collect(Collectors.toList());
+            assertThat(top).extracting(TagCount::getCount).as("prefix %s", prefix).containsExactlyElementsOf(expected);
+            top.forEach(t -> assertThat(counts.get(t.getTag())).isEqualTo(t.getCount()));
+        }
+        assertThat(trie.size()).isEqualTo(counts.size());
+    }
+
+    private static List<String> names(List<TagCount> tags) {
+        return tags.stream().map(TagCount::getTag).collect(Collectors.toList());
+    }
+}
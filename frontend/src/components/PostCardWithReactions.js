@@ -1,12 +1,37 @@
-import React, { useState } from "react";
+import React, { useCallback, useEffect, useState } from "react";
 
 const PostCardWithReactions = ({ post, userId, userName, token, onUpdate, showControls, onEdit, onDelete }) => {
   const [comment, setComment] = useState("");
   const [isCommenting, setIsCommenting] = useState(false);
   const [commentError, setCommentError] = useState(null);
   const [showComments, setShowComments] = useState(false);
+  const [comments, setComments] = useState([]);
+  const [commentsCursor, setCommentsCursor] = useState(null);
+  const commentCount = (post.commentCount || 0) + (post.comments?.length || 0);
   const reactionOptions = ["❤️", "👍", "😂", "😮", "😢", "😡"];
 
+  // Comments are paginated on the server; load the first page when shown
+  const loadComments = useCallback(async (cursor) => {
+    try {
+      const params = cursor ? `?cursor=${encodeURIComponent(cursor)}` : "";
+      const res = await fetch(`http://localhost:8080/api/posts/${post.id}/comments${params}`, {
+        headers: {
+          Authorization: `Bearer ${token}`,
+        },
+      });
+      if (!res.ok) return;
+      const page = await res.json();
+      setComments((prev) => (cursor ? [...prev, ...page.items] : page.items));
+      setCommentsCursor(page.nextCursor);
+    } catch (err) {
+      console.error("Comments error", err);
+    }
+  }, [post.id, token]);
+
+  useEffect(() => {
+    if (showComments) loadComments(null);
+  }, [showComments, commentCount, loadComments]);
+
   const handleReact = async (emoji) => {
     try {
       await fetch(`http://localhost:8080/api/posts/${post.id}/react?userId=${userId}&reaction=${emoji}`, {
@@ -196,24 +221,33 @@ const PostCardWithReactions = ({ post, userId, userName, token, onUpdate, showCo
           aria-label={showComments ? "Hide comments" : "Show comments"}
           aria-expanded={showComments}
         >
-          {showComments ? "Hide Comments" : `Show Comments (${post.comments?.length || 0})`}
+          {showComments ? "Hide Comments" : `Show Comments (${commentCount})`}
         </button>
 
-        {showComments && post.comments?.length > 0 && (
+        {showComments && comments.length > 0 && (
           <div
             className="space-y-2 mb-4"
             role="region"
             aria-label="Comments section"
           >
-            {post.comments.map((c, i) => (
+            {comments.map((c, i) => (
               <div
-                key={i}
+                key={c.id || i}
                 className="p-3 bg-gray-100 rounded-lg border border-gray-200"
               >
                 <strong className="text-teal-600">{c.userName}:</strong>
                 <span className="ml-2 text-gray-700">{c.commentText}</span>
               </div>
             ))}
+            {commentsCursor && (
+              <button
+                onClick={() => loadComments(commentsCursor)}
+                className="text-sm text-teal-600 hover:underline"
+                aria-label="Load more comments"
+              >
+                Load more comments
+              </button>
+            )}
           </div>
         )}
 
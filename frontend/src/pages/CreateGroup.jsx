@@ -22,8 +22,7 @@ const CreateGroup = () => {
     const groupData = {
       name,
       description,
-      creatorId: userId,
-      memberIds: [userId],  
+      creatorId: userId, // The backend adds the creator as the group's owner
       pinnedResources: []
     };
 
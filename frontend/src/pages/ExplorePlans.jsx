@@ -4,20 +4,28 @@ import { useNavigate } from "react-router-dom";
 const ExplorePlans = () => {
   const [plans, setPlans] = useState([]);
   const [searchTag, setSearchTag] = useState("");
+  const [activeTag, setActiveTag] = useState("");
+  const [nextCursor, setNextCursor] = useState(null);
   const token = localStorage.getItem("token");
   const navigate = useNavigate();
 
-  // Fetch all public plans OR by tag
-  const fetchPlans = async (tag = "") => {
-    const url = tag
-      ? `http://localhost:8080/api/plans/tag/${tag}`
+  // Fetch all public plans OR by tag; pass the previous page's nextCursor to append the following page
+  const fetchPlans = async (tag = "", cursor = null) => {
+    const base = tag
+      ? `http://localhost:8080/api/plans/tag/${encodeURIComponent(tag)}`
       : `http://localhost:8080/api/plans/public`;
+    const url = cursor ? `${base}?cursor=${encodeURIComponent(cursor)}` : base;
 
     const res = await fetch(url, {
       headers: { Authorization: `Bearer ${token}` },
     });
+    if (!res.ok) return;
+    // Both lists return one page at a time: { items, nextCursor }
     const data = await res.json();
-    setPlans(data);
+    const items = data.items || [];
+    setPlans((prev) => (cursor ? [...prev, ...items] : items));
+    setNextCursor(data.nextCursor || null);
+    setActiveTag(tag);
   };
 
   useEffect(() => {
@@ -72,6 +80,17 @@ const ExplorePlans = () => {
             ))
           )}
         </div>
+
+        {nextCursor && (
+          <div className="flex justify-center mt-8">
+            <button
+              onClick={() => fetchPlans(activeTag, nextCursor)}
+              className="bg-cyan-500 text-white px-6 py-3 rounded-xl hover:scale-105 transform transition-all"
+            >
+              Load more
+            </button>
+          </div>
+        )}
       </div>
     </div>
   );
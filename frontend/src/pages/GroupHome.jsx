@@ -10,6 +10,7 @@ const GroupHome = () => {
   const [isEditing, setIsEditing] = useState(false); // Edit mode for group details
   const [editName, setEditName] = useState(""); // Edited group name
   const [editDescription, setEditDescription] = useState(""); // Edited group description
+  const [isMember, setIsMember] = useState(false); // Whether the current user belongs to the group
   const token = localStorage.getItem("token");
   const userId = localStorage.getItem("userId");
   const navigate = useNavigate();
@@ -25,11 +26,16 @@ const GroupHome = () => {
       setEditName(groupData.name);
       setEditDescription(groupData.description);
 
+      const resMember = await fetch(`http://localhost:8080/api/groups/${id}/members/${userId}`, {
+        headers: { Authorization: `Bearer ${token}` },
+      });
+      setIsMember(resMember.ok);
+
       const resPosts = await fetch(`http://localhost:8080/api/groups/${id}/posts`, {
         headers: { Authorization: `Bearer ${token}` },
       });
       const postsData = await resPosts.json();
-      setPosts(postsData);
+      setPosts(postsData.items || []); // Newest page first
     } catch (error) {
       console.error("Failed to load group", error);
     }
@@ -61,8 +67,10 @@ const GroupHome = () => {
       });
       if (res.ok) {
         const newPostObj = await res.json();
-        setPosts([...posts, newPostObj]);
+        setPosts([newPostObj, ...posts]);
         setNewPost("");
+      } else if (res.status === 403) {
+        alert("Join the group to post");
       } else {
         alert("Failed to post");
       }
@@ -75,21 +83,14 @@ const GroupHome = () => {
   // Join the group as a member
   const handleJoinGroup = async () => {
     try {
-      const updatedGroup = {
-        ...group,
-        memberIds: [...group.memberIds, userId],
-      };
-      const res = await fetch(`http://localhost:8080/api/groups/${id}`, {
-        method: "PUT",
-        headers: {
-          "Content-Type": "application/json",
-          Authorization: `Bearer ${token}`,
-        },
-        body: JSON.stringify(updatedGroup),
+      const res = await fetch(`http://localhost:8080/api/groups/${id}/members/${userId}`, {
+        method: "POST",
+        headers: { Authorization: `Bearer ${token}` },
       });
       if (res.ok) {
         const newGroupData = await res.json();
         setGroup(newGroupData);
+        setIsMember(true);
         alert("Successfully joined the group!");
       } else {
         alert("Failed to join group");
@@ -204,7 +205,7 @@ const GroupHome = () => {
         </div>
 
         {/* Join Button (if not a member) */}
-        {!group.memberIds.includes(userId) && (
+        {!isMember && (
           <div className="flex justify-center mb-6">
             <button
               onClick={handleJoinGroup}
@@ -128,7 +128,7 @@ const Home = () => {
     const fetchStories = async () => {
       setIsLoadingStories(true);
       try {
-        const res = await authFetch("http://localhost:8080/api/stories");
+        const res = await authFetch(`http://localhost:8080/api/stories`);
         if (res.ok) setStories(await res.json());
       } catch (error) {
         console.error("Failed to fetch stories", error);
@@ -371,7 +371,7 @@ const Home = () => {
                           <p className="text-xs text-gray-900 font-medium mt-1 truncate w-full text-center">
                             {story.userName}
                           </p>
-                          <p className="text-xs text-gray-500">{story.viewedBy?.length || 0} views</p>
+                          <p className="text-xs text-gray-500">{story.viewCount || 0} views</p>
                         </div>
                       </div>
                     ))
@@ -503,7 +503,7 @@ const Home = () => {
                   />
                   <div>
                     <p className="text-gray-900 font-medium text-sm">{selectedStory.userName}</p>
-                    <p className="text-gray-500 text-xs">{selectedStory.viewedBy?.length || 0} views</p>
+                    <p className="text-gray-500 text-xs">{selectedStory.viewCount || 0} views</p>
                   </div>
                 </div>
 
@@ -56,7 +56,7 @@ const StudyGroups = () => {
                 <h3 className="text-xl font-bold mb-2">{group.name}</h3>
                 <p className="text-cyan-300 mb-4 line-clamp-2">{group.description}</p>
                 <p className="text-sm text-cyan-400/70">
-                  Members: {group.memberIds ? group.memberIds.length : 0}
+                  Members: {group.memberCount || 0}
                 </p>
               </div>
             ))}